@@ -0,0 +1,78 @@
+package com.chatroom_test.chat.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+// 같은 방에 batchSize 건을 보낼 때 한 건씩 전송 vs 묶어서 전송 (jedis-mock + H2)
+// 두 벤치마크 모두 호출 한 번에 batchSize 건을 보내므로 ops/ms를 그대로 비교하면 된다
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatBatchSendBenchmark {
+
+	private static final String WRITER = "writer";
+	private static final String READER = "reader";
+
+	@Param({"10", "100", "1000"})
+	public int batchSize;
+
+	private ChatBenchmarkEnvironment environment;
+	private ChatService chatService;
+	private MessageFlushService messageFlushService;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		environment = new ChatBenchmarkEnvironment("batch" + batchSize);
+		chatService = environment.getBean(ChatService.class);
+		messageFlushService = environment.getBean(MessageFlushService.class);
+	}
+
+	@TearDown(Level.Iteration)
+	public void flush() {
+		messageFlushService.flush();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		environment.close();
+	}
+
+	@Benchmark
+	public void sendOneByOne() {
+		for (ChatMessage message : messages()) {
+			chatService.sendMessage(message);
+		}
+	}
+
+	@Benchmark
+	public void sendBatch() {
+		chatService.sendMessages(messages());
+	}
+
+	private List<ChatMessage> messages() {
+		List<ChatMessage> messages = new ArrayList<>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			ChatMessage message = new ChatMessage();
+			message.setSender(WRITER);
+			message.setReceiver(READER);
+			message.setContent("benchmark message " + i);
+			messages.add(message);
+		}
+		return messages;
+	}
+}
@@ -0,0 +1,44 @@
+package com.chatroom_test.chat.service;
+
+import java.io.IOException;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.chatroom_test.ChatroomTestApplication;
+import com.github.fppt.jedismock.RedisServer;
+
+// 벤치마크용 애플리케이션: in-process Redis stand-in(jedis-mock) + H2 메모리 DB
+public class ChatBenchmarkEnvironment implements AutoCloseable {
+
+	private final RedisServer redisServer;
+	private final ConfigurableApplicationContext context;
+
+	// extraProperties: 벤치마크별로 덮어쓸 설정 (key=value)
+	public ChatBenchmarkEnvironment(String databaseName, String... extraProperties) throws IOException {
+		redisServer = RedisServer.newRedisServer();
+		redisServer.start();
+		context = new SpringApplicationBuilder(ChatroomTestApplication.class)
+			.properties(
+				"server.port=0",
+				"spring.data.redis.host=localhost",
+				"spring.data.redis.port=" + redisServer.getBindPort(),
+				"spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+				"spring.jpa.show-sql=false",
+				"chat.wal.dir=" + System.getProperty("java.io.tmpdir") + "/chat-wal-" + databaseName,
+				// 플러시는 벤치마크에서 직접 호출
+				"chat.flush.interval-ms=3600000")
+			.properties(extraProperties)
+			.run();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	@Override
+	public void close() throws IOException {
+		context.close();
+		redisServer.stop();
+	}
+}
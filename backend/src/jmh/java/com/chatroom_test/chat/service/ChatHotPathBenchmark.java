@@ -0,0 +1,108 @@
+package com.chatroom_test.chat.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.chatroom_test.chat.repository.ChatMessageBatchRepository;
+import com.chatroom_test.chat.repository.ChatRoomRepository;
+
+// 메시지 전송 end-to-end와 방 크기별 unread count 조회 (jedis-mock + H2)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatHotPathBenchmark {
+
+	private static final String READER = "reader";
+	private static final String WRITER = "writer";
+
+	@Param({"10", "1000", "10000", "100000"})
+	public int roomSize;
+
+	private ChatBenchmarkEnvironment environment;
+	private ChatService chatService;
+	private MessageFlushService messageFlushService;
+	private StringRedisTemplate stringRedisTemplate;
+	private String roomId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		environment = new ChatBenchmarkEnvironment("bench" + roomSize);
+		chatService = environment.getBean(ChatService.class);
+		messageFlushService = environment.getBean(MessageFlushService.class);
+		stringRedisTemplate = environment.getBean(StringRedisTemplate.class);
+
+		roomId = chatService.getRoomId(WRITER, READER);
+		environment.getBean(ChatRoomRepository.class).insertIfAbsent(roomId, WRITER, READER);
+		ChatRoom room = new ChatRoom(roomId, WRITER, READER);
+
+		ChatMessageBatchRepository batchRepository = environment.getBean(ChatMessageBatchRepository.class);
+		MessageIdGenerator idGenerator = environment.getBean(MessageIdGenerator.class);
+		LocalDateTime start = LocalDateTime.now().minusDays(1);
+		List<ChatMessage> batch = new ArrayList<>();
+		for (int i = 0; i < roomSize; i++) {
+			ChatMessage message = new ChatMessage();
+			message.setId(idGenerator.nextId());
+			message.setMessageId(String.valueOf(message.getId()));
+			message.setSender(i % 2 == 0 ? WRITER : READER);
+			message.setReceiver(i % 2 == 0 ? READER : WRITER);
+			message.setContent("message " + i);
+			message.setTimestamp(start.plusNanos(i * 1000L));
+			message.setChatRoom(room);
+			batch.add(message);
+			if (batch.size() == 1000) {
+				batchRepository.insertAll(batch);
+				batch.clear();
+			}
+		}
+		batchRepository.insertAll(batch);
+	}
+
+	@TearDown(Level.Iteration)
+	public void flush() {
+		messageFlushService.flush();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		environment.close();
+	}
+
+	@Benchmark
+	public void sendMessage() {
+		ChatMessage message = new ChatMessage();
+		message.setSender(WRITER);
+		message.setReceiver(READER);
+		message.setContent("benchmark message");
+		chatService.sendMessage(message);
+	}
+
+	// 카운터가 이미 있는 경우 (전송/목록 조회 시 일반적인 경로)
+	@Benchmark
+	public long getUnreadCount() {
+		return chatService.getUnreadCount(roomId, READER);
+	}
+
+	// 카운터가 없는 경우 (콜드 스타트 재계산)
+	@Benchmark
+	public long getUnreadCountCold() {
+		stringRedisTemplate.opsForHash().delete("unread:" + READER, roomId);
+		return chatService.getUnreadCount(roomId, READER);
+	}
+}
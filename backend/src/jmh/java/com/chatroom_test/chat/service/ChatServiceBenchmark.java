@@ -0,0 +1,35 @@
+package com.chatroom_test.chat.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.chatroom_test.chat.dto.ChatRoomResponse;
+import com.chatroom_test.chat.entity.ChatRoom;
+
+// Redis/DB 없이 측정 가능한 순수 계산 경로
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatServiceBenchmark {
+
+	private final ChatService chatService = new ChatService();
+	private final ChatRoom room = new ChatRoom("client-user:expert-user", "client-user", "expert-user");
+	private final LocalDateTime lastMessageTime = LocalDateTime.now();
+
+	@Benchmark
+	public String getRoomId() {
+		return chatService.getRoomId("expert-user", "client-user");
+	}
+
+	@Benchmark
+	public ChatRoomResponse chatRoomResponse() {
+		return new ChatRoomResponse(room, "client-user", 3, "마지막 메시지", lastMessageTime);
+	}
+}
@@ -0,0 +1,71 @@
+package com.chatroom_test.redis;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// 이전 Jackson JSON 직렬화와 ChatMessageRedisSerializer의 크기 / encode / decode 처리량 비교
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatMessageSerializerBenchmark {
+
+	@Param({"json", "binary"})
+	public String format;
+
+	@Param({"16", "512"})
+	public int contentLength;
+
+	private RedisSerializer<ChatMessage> serializer;
+	private ChatMessage message;
+	private byte[] encoded;
+
+	@Setup
+	public void setUp() {
+		if ("json".equals(format)) {
+			ObjectMapper objectMapper = new ObjectMapper();
+			objectMapper.registerModule(new JavaTimeModule());
+			serializer = new Jackson2JsonRedisSerializer<>(objectMapper, ChatMessage.class);
+		} else {
+			serializer = new ChatMessageRedisSerializer();
+		}
+
+		ChatRoom room = new ChatRoom("client-user:expert-user", "client-user", "expert-user");
+		room.setLastReadAtUser1(LocalDateTime.now().minusMinutes(5));
+		room.setLastReadAtUser2(LocalDateTime.now().minusMinutes(1));
+		message = new ChatMessage();
+		message.setSender("client-user");
+		message.setReceiver("expert-user");
+		message.setContent("가".repeat(contentLength));
+		message.setTimestamp(LocalDateTime.now());
+		message.setChatRoom(room);
+
+		encoded = serializer.serialize(message);
+		System.out.printf("%n[%s, content %d] encoded size: %d bytes%n", format, contentLength, encoded.length);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return serializer.serialize(message);
+	}
+
+	@Benchmark
+	public ChatMessage decode() {
+		return serializer.deserialize(encoded);
+	}
+}
@@ -0,0 +1,107 @@
+package com.chatroom_test.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.chatroom_test.chat.service.ChatBenchmarkEnvironment;
+import com.chatroom_test.user.repository.UserRepository;
+import com.chatroom_test.user.service.CustomUserDetailsService;
+import com.chatroom_test.user.service.UserLookupService;
+
+// 로그인 경로: BCrypt 비용별 인증 시간과, 사용자 조회/존재 확인의 캐시 + Bloom filter 효과 (DB 직접 조회와 비교)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoginPathBenchmark {
+
+	private static final int USERS = 10_000;
+	private static final String PASSWORD = "password";
+
+	@Param({"4", "8", "10", "12"})
+	public int bcryptStrength;
+
+	private ChatBenchmarkEnvironment environment;
+	private AuthenticationManager authenticationManager;
+	private CustomUserDetailsService userDetailsService;
+	private UserLookupService userLookupService;
+	private UserRepository userRepository;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		environment = new ChatBenchmarkEnvironment("login" + bcryptStrength,
+			"security.bcrypt.strength=" + bcryptStrength);
+		authenticationManager = environment.getBean(AuthenticationManager.class);
+		userDetailsService = environment.getBean(CustomUserDetailsService.class);
+		userLookupService = environment.getBean(UserLookupService.class);
+		userRepository = environment.getBean(UserRepository.class);
+
+		// 해시는 비용이 크므로 한 번만 만들어 모든 사용자에 사용
+		String hash = environment.getBean(PasswordEncoder.class).encode(PASSWORD);
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			rows.add(new Object[] {"user" + i, hash});
+		}
+		environment.getBean(JdbcTemplate.class).batchUpdate("insert into users (username, password) values (?, ?)",
+			rows);
+		userLookupService.rebuildFilter();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		environment.close();
+	}
+
+	// 전체 로그인 (사용자 조회 + BCrypt 검증), 비용이 지배적
+	@Benchmark
+	public Authentication authenticate() {
+		return authenticationManager.authenticate(
+			new UsernamePasswordAuthenticationToken(nextUser(), PASSWORD));
+	}
+
+	@Benchmark
+	public UserDetails loadUserCached() {
+		return userDetailsService.loadUserByUsername(nextUser());
+	}
+
+	// 변경 전 경로: 매번 DB 조회
+	@Benchmark
+	public Object loadUserFromDatabase() {
+		return userRepository.findByUsername(nextUser()).orElseThrow();
+	}
+
+	// 입력 중인 아이디 확인: 대부분 없는 아이디
+	@Benchmark
+	public boolean userExistsMiss() {
+		return userLookupService.exists("missing" + next++);
+	}
+
+	@Benchmark
+	public boolean userExistsMissFromDatabase() {
+		return userRepository.findByUsername("missing" + next++).isPresent();
+	}
+
+	private String nextUser() {
+		next = (next + 1) % USERS;
+		return "user" + next;
+	}
+}
@@ -0,0 +1,10 @@
+package com.chatroom_test.chat.broker;
+
+// 노드 간에 전달되는 broker 메시지 (origin: 발행한 노드 id)
+public record BrokerEnvelope(
+	String origin,
+	String destination,
+	String contentType,
+	byte[] payload
+) {
+}
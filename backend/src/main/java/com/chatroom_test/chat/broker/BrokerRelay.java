@@ -0,0 +1,11 @@
+package com.chatroom_test.chat.broker;
+
+import java.util.function.Consumer;
+
+// broker 메시지를 다른 노드로 전달하는 relay (Redis pub/sub 등으로 교체 가능)
+public interface BrokerRelay {
+
+	void publish(BrokerEnvelope envelope);
+
+	void subscribe(Consumer<BrokerEnvelope> listener);
+}
@@ -0,0 +1,53 @@
+package com.chatroom_test.chat.broker;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+// brokerChannel로 들어오는 /topic 메시지를 로컬 broker에 그대로 전달하면서 다른 노드에도 발행
+public class BrokerRelayInterceptor implements ChannelInterceptor {
+
+	// 다른 노드에서 전달된 메시지 표시 (다시 발행하지 않도록)
+	public static final String RELAYED_HEADER = "x-relayed-from";
+
+	private final BrokerRelay relay;
+	private final String nodeId;
+	private final String destinationPrefix;
+
+	public BrokerRelayInterceptor(BrokerRelay relay, String nodeId, String destinationPrefix) {
+		this.relay = relay;
+		this.nodeId = nodeId;
+		this.destinationPrefix = destinationPrefix;
+	}
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		MessageHeaders headers = message.getHeaders();
+		if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+			|| headers.containsKey(RELAYED_HEADER)) {
+			return message;
+		}
+		String destination = SimpMessageHeaderAccessor.getDestination(headers);
+		if (destination == null || !destination.startsWith(destinationPrefix)) {
+			return message;
+		}
+
+		byte[] payload;
+		if (message.getPayload() instanceof byte[] bytes) {
+			payload = bytes;
+		} else if (message.getPayload() instanceof String text) {
+			payload = text.getBytes(StandardCharsets.UTF_8);
+		} else {
+			return message;
+		}
+		Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+		relay.publish(new BrokerEnvelope(nodeId, destination,
+			contentType != null ? contentType.toString() : null, payload));
+		return message;
+	}
+}
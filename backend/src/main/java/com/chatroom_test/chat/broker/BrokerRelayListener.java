@@ -0,0 +1,34 @@
+package com.chatroom_test.chat.broker;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+// 다른 노드에서 발행된 메시지를 이 노드의 brokerChannel로 넣어 로컬 구독자에게 전달
+public class BrokerRelayListener {
+
+	private final MessageChannel brokerChannel;
+	private final String nodeId;
+
+	public BrokerRelayListener(BrokerRelay relay, MessageChannel brokerChannel, String nodeId) {
+		this.brokerChannel = brokerChannel;
+		this.nodeId = nodeId;
+		relay.subscribe(this::deliver);
+	}
+
+	void deliver(BrokerEnvelope envelope) {
+		// 자신이 발행한 메시지는 이미 로컬 broker로 전달됨
+		if (nodeId.equals(envelope.origin())) {
+			return;
+		}
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setDestination(envelope.destination());
+		if (envelope.contentType() != null) {
+			accessor.setContentType(MimeTypeUtils.parseMimeType(envelope.contentType()));
+		}
+		accessor.setHeader(BrokerRelayInterceptor.RELAYED_HEADER, envelope.origin());
+		brokerChannel.send(MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+	}
+}
@@ -0,0 +1,50 @@
+package com.chatroom_test.chat.broker;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Redis pub/sub 채널 하나로 모든 노드에 broker 메시지를 fan-out
+public class RedisBrokerRelay implements BrokerRelay {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final ObjectMapper objectMapper;
+	private final String channel;
+
+	public RedisBrokerRelay(StringRedisTemplate stringRedisTemplate,
+		RedisMessageListenerContainer listenerContainer,
+		ObjectMapper objectMapper,
+		String channel) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.objectMapper = objectMapper;
+		this.channel = channel;
+	}
+
+	@Override
+	public void publish(BrokerEnvelope envelope) {
+		try {
+			stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(envelope));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("broker 메시지 직렬화 실패", e);
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<BrokerEnvelope> listener) {
+		listenerContainer.addMessageListener((message, pattern) -> {
+			try {
+				listener.accept(objectMapper.readValue(message.getBody(), BrokerEnvelope.class));
+			} catch (IOException e) {
+				System.err.println("Failed to read relayed broker message: " + e.getMessage());
+			}
+		}, new ChannelTopic(channel));
+	}
+}
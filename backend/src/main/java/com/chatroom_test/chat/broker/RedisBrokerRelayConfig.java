@@ -0,0 +1,47 @@
+package com.chatroom_test.chat.broker;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.SubscribableChannel;
+
+import com.chatroom_test.chat.config.ChatNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// chat.broker.mode=redis 일 때 SimpleBroker 메시지를 Redis pub/sub으로 다른 노드와 공유
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.mode", havingValue = "redis")
+public class RedisBrokerRelayConfig {
+
+	@Bean
+	public RedisMessageListenerContainer brokerRelayListenerContainer(RedisConnectionFactory connectionFactory) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		return container;
+	}
+
+	@Bean
+	public BrokerRelay brokerRelay(StringRedisTemplate stringRedisTemplate,
+		RedisMessageListenerContainer brokerRelayListenerContainer,
+		ObjectMapper objectMapper,
+		@Value("${chat.broker.channel:chat:broker}") String channel) {
+		return new RedisBrokerRelay(stringRedisTemplate, brokerRelayListenerContainer, objectMapper, channel);
+	}
+
+	@Bean
+	public BrokerRelayInterceptor brokerRelayInterceptor(BrokerRelay brokerRelay, ChatNode chatNode) {
+		return new BrokerRelayInterceptor(brokerRelay, chatNode.getId(), "/topic/");
+	}
+
+	@Bean
+	public BrokerRelayListener brokerRelayListener(BrokerRelay brokerRelay,
+		@Qualifier("brokerChannel") SubscribableChannel brokerChannel,
+		ChatNode chatNode) {
+		return new BrokerRelayListener(brokerRelay, brokerChannel, chatNode.getId());
+	}
+}
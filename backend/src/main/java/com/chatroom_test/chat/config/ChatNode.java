@@ -0,0 +1,48 @@
+package com.chatroom_test.chat.config;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// 현재 서버 인스턴스 식별자 (여러 노드 운영 시 메시지 출처 구분용)
+@Component
+public class ChatNode {
+
+	// 메시지 id에 들어가는 worker id 비트 수 (최대 1024 노드)
+	public static final int WORKER_ID_BITS = 10;
+	public static final int MAX_WORKER_ID = (1 << WORKER_ID_BITS) - 1;
+
+	private final String id;
+	private final int workerId;
+
+	public ChatNode(@Value("${chat.node-id:}") String id, @Value("${chat.worker-id:}") String workerId,
+		@Value("${chat.broker.mode:simple}") String brokerMode) {
+		this.id = id == null || id.isBlank() ? UUID.randomUUID().toString() : id;
+		if (workerId != null && !workerId.isBlank()) {
+			this.workerId = parseWorkerId(workerId);
+		} else if ("redis".equals(brokerMode)) {
+			// 유도한 값은 노드끼리 겹칠 수 있고, 겹치면 같은 밀리초에 같은 메시지 id가 나온다
+			throw new IllegalStateException("chat.broker.mode=redis 에서는 노드마다 다른 chat.worker-id를 지정해야 합니다.");
+		} else {
+			// 단일 노드는 겹칠 상대가 없으므로 node id에서 유도
+			this.workerId = this.id.hashCode() & MAX_WORKER_ID;
+		}
+	}
+
+	private static int parseWorkerId(String value) {
+		int workerId = Integer.parseInt(value.trim());
+		if (workerId < 0 || workerId > MAX_WORKER_ID) {
+			throw new IllegalArgumentException("chat.worker-id는 0~" + MAX_WORKER_ID + " 범위여야 합니다: " + workerId);
+		}
+		return workerId;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public int getWorkerId() {
+		return workerId;
+	}
+}
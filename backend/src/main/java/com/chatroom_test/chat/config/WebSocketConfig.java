@@ -1,23 +1,142 @@
 package com.chatroom_test.chat.config;
 
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import com.chatroom_test.chat.broker.BrokerRelayInterceptor;
+import com.chatroom_test.chat.outbound.SessionOutboundQueues;
+import com.chatroom_test.chat.presence.PresenceChannelInterceptor;
+import com.chatroom_test.security.TokenChannelInterceptor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // chat.broker.mode=redis 일 때만 등록됨 (다른 노드로 /topic 메시지 전달)
+    @Autowired(required = false)
+    private BrokerRelayInterceptor brokerRelayInterceptor;
+
+    // STOMP CONNECT의 토큰을 검증해 세션 사용자를 설정 (presence보다 먼저 실행)
+    @Autowired
+    private TokenChannelInterceptor tokenChannelInterceptor;
+
+    // STOMP connect/subscribe/disconnect로 사용자별 접속 세션을 관리
+    @Autowired
+    private PresenceChannelInterceptor presenceChannelInterceptor;
+
+    // 브로커 -> 클라이언트 MESSAGE 프레임을 세션별 대기열로 보내 느린 클라이언트를 격리
+    @Autowired
+    private SessionOutboundQueues sessionOutboundQueues;
+
+    // spring.threads.virtual.enabled=true 이면 Tomcat, @Scheduled와 함께 STOMP 채널도 가상 스레드로 처리
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // 가상 스레드 모드에서 채널별 동시 처리 개수 상한
+    @Value("${chat.websocket.channel-concurrency:256}")
+    private int channelConcurrency;
+
+    // 클라이언트가 요청하면 permessage-deflate 압축 사용 (false면 협상에서 제외)
+    @Value("${chat.websocket.compression:true}")
+    private boolean compression;
+
+    // 느린 클라이언트 보호: 수신 메시지 최대 크기, 세션별 전송 대기 버퍼 최대 크기, 한 번의 전송 최대 시간,
+    // 연결 후 첫 STOMP 프레임까지 기다리는 시간 (MESSAGE 프레임 대기열 한도는 SessionOutboundQueues)
+    @Value("${chat.websocket.message-size-limit:64KB}")
+    private DataSize messageSizeLimit;
+
+    @Value("${chat.websocket.send-buffer-size-limit:512KB}")
+    private DataSize sendBufferSizeLimit;
+
+    @Value("${chat.websocket.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${chat.websocket.time-to-first-message:30s}")
+    private Duration timeToFirstMessage;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // 네이티브 WebSocket (SockJS 프레이밍/폴백 없이 STOMP 프레임만 전송)
+        registry.addEndpoint("/ws-chat-native")
+                .setHandshakeHandler(handshakeHandler())
+                .setAllowedOriginPatterns("*");
+        // WebSocket을 못 쓰는 환경용 SockJS (xhr-streaming/polling 폴백)
         registry.addEndpoint("/ws-chat")
+                .setHandshakeHandler(handshakeHandler())
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit((int) messageSizeLimit.toBytes())
+                .setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+                .setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setTimeToFirstMessage((int) timeToFirstMessage.toMillis())
+                .addDecoratorFactory(sessionOutboundQueues);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic");
         registry.setApplicationDestinationPrefixes("/app");
+        if (brokerRelayInterceptor != null) {
+            registry.configureBrokerChannel().interceptors(brokerRelayInterceptor);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(tokenChannelInterceptor, presenceChannelInterceptor);
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-inbound-"));
+        }
     }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionOutboundQueues);
+        if (virtualThreads) {
+            registration.executor(virtualThreadExecutor("ws-outbound-"));
+        }
+    }
+
+    private DefaultHandshakeHandler handshakeHandler() {
+        return compression ? new DefaultHandshakeHandler() : new UncompressedHandshakeHandler();
+    }
+
+    // 메시지마다 새 가상 스레드를 만들고 (풀링하지 않음), 동시에 실행 중인 개수만 channel-concurrency로 제한
+    // (상한에 닿으면 제출하는 쪽이 자리가 날 때까지 기다린다)
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String namePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(namePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(channelConcurrency);
+        return executor;
+    }
+
+    // permessage-deflate 협상을 막는 handshake handler (CPU가 대역폭보다 비쌀 때)
+    static class UncompressedHandshakeHandler extends DefaultHandshakeHandler {
+
+        @Override
+        protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                List<WebSocketExtension> requestedExtensions, List<WebSocketExtension> supportedExtensions) {
+            return super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions).stream()
+                    .filter(extension -> !PERMESSAGE_DEFLATE.equals(extension.getName()))
+                    .toList();
+        }
+    }
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
 }
@@ -1,25 +1,46 @@
 package com.chatroom_test.chat.controller;
 
+import java.security.Principal;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.stereotype.Controller;
 
 import com.chatroom_test.chat.entity.ChatMessage;
-import com.chatroom_test.chat.service.ChatService;
+import com.chatroom_test.chat.service.ChatSendPipeline;
 
 @Controller
 public class ChatController {
 
-	private final ChatService chatService;
+	private final ChatSendPipeline chatSendPipeline;
 
 	@Autowired
-	public ChatController(ChatService chatService) {
-		this.chatService = chatService;
+	public ChatController(ChatSendPipeline chatSendPipeline) {
+		this.chatSendPipeline = chatSendPipeline;
 	}
 
-	// 메시지 전송 처리
+	// 메시지 전송 처리 (방별 대기열에 넣고 바로 반환, 실제 처리는 ChatSendPipeline에서 순서대로 수행)
+	// 인증된 세션이면 payload의 sender 대신 인증된 사용자로 보낸다
 	@MessageMapping("/chat.send")
-	public void sendMessage(ChatMessage chatMessage) {
-		chatService.sendMessage(chatMessage);
+	public void sendMessage(ChatMessage chatMessage, Principal principal) {
+		ChatMessagePayloads.validate(chatMessage);
+		if (principal != null) {
+			chatMessage.setSender(principal.getName());
+		}
+		chatSendPipeline.submit(chatMessage);
+	}
+
+	// 여러 메시지를 한 프레임으로 전송 (봇, 가져오기 도구용): 방별로 묶어 Redis 기록과 broadcast를 한 번씩만 수행
+	// 인증된 세션만 허용하고 sender는 항상 인증된 사용자 (session 모드의 익명 연결도 거부)
+	@MessageMapping("/chat.sendBatch")
+	public void sendMessages(List<ChatMessage> chatMessages, Principal principal) {
+		if (principal == null) {
+			throw new MessagingException("여러 건 전송은 로그인한 사용자만 사용할 수 있습니다.");
+		}
+		ChatMessagePayloads.validateAll(chatMessages);
+		chatMessages.forEach(chatMessage -> chatMessage.setSender(principal.getName()));
+		chatSendPipeline.submitAll(chatMessages);
 	}
 }
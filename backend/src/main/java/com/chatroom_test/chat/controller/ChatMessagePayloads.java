@@ -0,0 +1,37 @@
+package com.chatroom_test.chat.controller;
+
+import java.util.List;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+// 전송 요청 payload 검사 (방 id를 만들기 전에 걸러 잘못된 요청이 400/오류 프레임으로 끝나도록)
+// receiver는 필수, content와 fileUrl 중 하나는 있어야 하며 messageId는 ClientMessageIds 규칙을 따른다
+final class ChatMessagePayloads {
+
+	private ChatMessagePayloads() {
+	}
+
+	static void validate(ChatMessage chatMessage) {
+		if (chatMessage == null) {
+			throw new IllegalArgumentException("메시지가 비어 있습니다.");
+		}
+		if (chatMessage.getReceiver() == null || chatMessage.getReceiver().isBlank()) {
+			throw new IllegalArgumentException("receiver가 필요합니다.");
+		}
+		if (isBlank(chatMessage.getContent()) && isBlank(chatMessage.getFileUrl())) {
+			throw new IllegalArgumentException("content 또는 fileUrl이 필요합니다.");
+		}
+		ClientMessageIds.validate(chatMessage);
+	}
+
+	static void validateAll(List<ChatMessage> chatMessages) {
+		if (chatMessages == null || chatMessages.isEmpty()) {
+			throw new IllegalArgumentException("보낼 메시지가 없습니다.");
+		}
+		chatMessages.forEach(ChatMessagePayloads::validate);
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+}
@@ -1,14 +1,22 @@
 package com.chatroom_test.chat.controller;
 
+import java.security.Principal;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.chatroom_test.chat.dto.ChatBatchResult;
+import com.chatroom_test.chat.dto.ChatHistoryPage;
 import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.service.ChatSendPipeline;
 import com.chatroom_test.chat.service.ChatService;
 
 @RestController
@@ -16,10 +24,12 @@ import com.chatroom_test.chat.service.ChatService;
 public class ChatRestController {
 
 	private final ChatService chatService;
+	private final ChatSendPipeline chatSendPipeline;
 
 	@Autowired
-	public ChatRestController(ChatService chatService) {
+	public ChatRestController(ChatService chatService, ChatSendPipeline chatSendPipeline) {
 		this.chatService = chatService;
+		this.chatSendPipeline = chatSendPipeline;
 	}
 
 	// chatroom 메시지 목록 조회 API
@@ -27,4 +37,31 @@ public class ChatRestController {
 	public List<ChatMessage> getHistoryByRoom(@RequestParam String roomId) {
 		return chatService.getMessagesByRoomId(roomId);
 	}
+
+	// chatroom 메시지 페이지 조회 API (before: 이 id보다 오래된 메시지, 없으면 최근 메시지부터)
+	@GetMapping("/history")
+	public ChatHistoryPage getHistoryPage(@RequestParam String roomId,
+		@RequestParam(required = false) Long before,
+		@RequestParam(defaultValue = "50") int limit) {
+		return chatService.getMessagePage(roomId, before, limit);
+	}
+
+	// 여러 메시지 전송 API (/app/chat.sendBatch 와 같은 처리, 대기열에 넣은 뒤 바로 반환)
+	// 인증 필수 (SecurityConfig), sender는 payload와 관계없이 인증된 사용자로 덮어쓴다
+	// receiver/content/messageId가 잘못된 메시지가 하나라도 있으면 전체를 400으로 거부
+	@PostMapping("/messages/batch")
+	public ResponseEntity<ChatBatchResult> sendMessages(@RequestBody List<ChatMessage> chatMessages,
+		Principal principal) {
+		if (principal == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		try {
+			ChatMessagePayloads.validateAll(chatMessages);
+			chatMessages.forEach(chatMessage -> chatMessage.setSender(principal.getName()));
+			int accepted = chatSendPipeline.submitAll(chatMessages);
+			return ResponseEntity.accepted().body(new ChatBatchResult(accepted, chatMessages.size() - accepted));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		}
+	}
 }
@@ -1,8 +1,6 @@
 package com.chatroom_test.chat.controller;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,7 +13,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chatroom_test.chat.dto.ChatRoomResponse;
-import com.chatroom_test.chat.entity.ChatMessage;
 import com.chatroom_test.chat.entity.ChatRoom;
 import com.chatroom_test.chat.service.ChatService;
 
@@ -36,16 +33,12 @@ public class ChatRoomRestController {
 		return ResponseEntity.status(HttpStatus.NOT_FOUND).body("채팅방을 찾을 수 없습니다.");
 	}
 
+	// 채팅방 목록 조회 API (마지막 활동 순, page/size 단위)
 	@GetMapping
-	public List<ChatRoomResponse> getChatRooms(@RequestParam String username) {
-		List<ChatRoom> rooms = chatService.getSubscribedChatRooms(username);
-		return rooms.stream().map(room -> {
-			long unread = chatService.getUnreadCount(room.getRoomId(), username);
-			ChatMessage lastMsg = chatService.getLastMessage(room.getRoomId());
-			String lastMessage = lastMsg != null ? lastMsg.getContent() : "";
-			LocalDateTime lastMessageTime = lastMsg != null ? lastMsg.getTimestamp() : null;
-			return new ChatRoomResponse(room, username, unread, lastMessage, lastMessageTime);
-		}).collect(Collectors.toList());
+	public List<ChatRoomResponse> getChatRooms(@RequestParam String username,
+		@RequestParam(defaultValue = "0") int page,
+		@RequestParam(defaultValue = "100") int size) {
+		return chatService.getChatRoomList(username, page, size);
 	}
 
 	// 채팅방 나가기 시 읽음 처리 API
@@ -0,0 +1,31 @@
+package com.chatroom_test.chat.controller;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+// 클라이언트가 보낸 messageId 검사 (재전송 중복 제거 키로만 쓰이므로 형식을 좁게 제한)
+// 비어 있으면 서버가 발급, 있으면 UUID 등 영문/숫자/-/_ 1~36자만 허용
+final class ClientMessageIds {
+
+	static final int MAX_LENGTH = 36;
+	private static final Pattern FORMAT = Pattern.compile("[A-Za-z0-9_-]{1," + MAX_LENGTH + "}");
+
+	private ClientMessageIds() {
+	}
+
+	static void validate(ChatMessage chatMessage) {
+		String messageId = chatMessage.getMessageId();
+		if (messageId == null || messageId.isEmpty()) {
+			return;
+		}
+		if (!FORMAT.matcher(messageId).matches()) {
+			throw new IllegalArgumentException("messageId는 영문, 숫자, '-', '_' 로 된 " + MAX_LENGTH + "자 이하여야 합니다.");
+		}
+	}
+
+	static void validateAll(List<ChatMessage> chatMessages) {
+		chatMessages.forEach(ClientMessageIds::validate);
+	}
+}
@@ -0,0 +1,8 @@
+package com.chatroom_test.chat.dto;
+
+// 여러 건 전송 결과: 대기열이 가득 찬 방의 메시지는 rejected로 센다 (보낸 사람에게는 알림도 전송)
+public record ChatBatchResult(
+	int accepted,
+	int rejected
+) {
+}
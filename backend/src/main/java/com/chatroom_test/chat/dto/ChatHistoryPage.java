@@ -0,0 +1,16 @@
+package com.chatroom_test.chat.dto;
+
+import java.util.List;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+// 채팅 내역 페이지 (messages는 오래된 순, nextBefore는 다음 페이지 요청 시 before로 사용)
+public record ChatHistoryPage(
+	List<ChatMessage> messages,
+	@JsonSerialize(using = ToStringSerializer.class)
+	Long nextBefore,
+	boolean hasMore
+) {
+}
@@ -0,0 +1,8 @@
+package com.chatroom_test.chat.dto;
+
+// /topic/presence/{username} 로 보내는 접속 상태 변경
+public record PresenceUpdate(
+	String username,
+	boolean online
+) {
+}
@@ -0,0 +1,9 @@
+package com.chatroom_test.chat.dto;
+
+import java.util.List;
+
+// /topic/unreadCount/{username} 로 보내는 프레임: 짧은 시간 동안 바뀐 방들의 최신 unread count를 한 번에 전달
+public record UnreadCountBatch(
+	List<UnreadCountUpdate> updates
+) {
+}
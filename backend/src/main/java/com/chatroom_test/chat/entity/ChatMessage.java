@@ -2,27 +2,44 @@ package com.chatroom_test.chat.entity;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "chat_messages")
+// (방, id): 내역 페이지/마지막 메시지 조회, (방, timestamp): 마지막 읽은 시간 이후 안 읽은 메시지 수
+// (방, sender, message_id): 플러시 중복 확인 (클라이언트가 정한 id라 다른 사용자/방의 id와는 겹쳐도 된다)
+@Table(name = "chat_messages", indexes = {
+	@Index(name = "idx_chat_messages_room_id", columnList = "chat_room_room_id, id"),
+	@Index(name = "idx_chat_messages_room_timestamp", columnList = "chat_room_room_id, timestamp")
+}, uniqueConstraints = {
+	@UniqueConstraint(name = "uk_chat_messages_room_sender_message_id",
+		columnNames = {"chat_room_room_id", "sender", "message_id"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class ChatMessage {
+	// sendMessage 시점에 MessageIdGenerator가 발급 (시간 순 정렬, DB 왕복 없음)
+	// 63비트 값이라 JavaScript number로는 정밀도가 깨지므로 JSON에서는 문자열로 내보낸다
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@JsonSerialize(using = ToStringSerializer.class)
 	private Long id;
 
+	// 메시지 고유 id (클라이언트가 보내면 그대로 사용, 없으면 id 값을 사용) - (방, sender) 안에서 플러시 중복 방지 키
+	@Column(length = 36)
+	private String messageId;
+
 	private String sender;
 	private String receiver;
 	private String content;
@@ -31,6 +48,10 @@ public class ChatMessage {
 	@Column(columnDefinition = "TEXT")
 	private String fileUrl;
 
+	// 첨부 이미지의 미리보기 URL (내역 화면은 원본 대신 이것만 받는다)
+	@Column(columnDefinition = "TEXT")
+	private String thumbnailUrl;
+
 	@ManyToOne
 	private ChatRoom chatRoom;
 }
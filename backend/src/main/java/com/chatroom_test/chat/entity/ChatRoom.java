@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Getter;
@@ -15,7 +16,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "chat_rooms")
+// 사용자별 채팅방 조회는 client, expert 인덱스를 각각 타도록 UNION으로 조회 (ChatRoomRepository.findByMember)
+@Table(name = "chat_rooms", indexes = {
+	@Index(name = "idx_chat_rooms_client", columnList = "client"),
+	@Index(name = "idx_chat_rooms_expert", columnList = "expert")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,19 @@
+package com.chatroom_test.chat.outbound;
+
+import java.util.Locale;
+
+// 세션별 전송 대기열이 가득 찼을 때 처리 방식 (chat.websocket.outbound.policy)
+public enum OutboundQueuePolicy {
+
+	// 가장 오래된 채팅 외 프레임(unread count, 알림, presence)을 버린다 (버릴 프레임이 없으면 연결 종료)
+	DROP_NON_CHAT,
+	// 연결을 끊는다 (클라이언트는 재연결 후 히스토리 API로 따라잡는다)
+	DISCONNECT,
+	// 대기열이 절반으로 줄 때까지 새 프레임을 버린다 (채팅 프레임을 버린 방은 풀린 뒤 resync 프레임으로 알린다)
+	PAUSE;
+
+	// drop-non-chat 처럼 설정 파일 표기도 허용
+	public static OutboundQueuePolicy parse(String value) {
+		return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+	}
+}
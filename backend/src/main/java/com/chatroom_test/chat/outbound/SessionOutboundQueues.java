@@ -0,0 +1,307 @@
+package com.chatroom_test.chat.outbound;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// 세션별 전송 대기열로 느린 클라이언트를 격리
+// - 브로커가 clientOutboundChannel로 보내는 MESSAGE 프레임을 세션별 대기열에 넣고, 세션마다 가상 스레드 하나가 순서대로 전송
+//   (느린 세션은 자기 전송 스레드만 붙잡고, 공용 outbound 스레드 풀과 다른 세션의 지연에는 영향을 주지 않는다)
+// - 대기열이 max-queue-size에 닿으면 OutboundQueuePolicy에 따라 버리거나 연결을 끊는다
+// - pause 정책으로 채팅 프레임을 버린 방은 대기열이 풀린 뒤 {"type":"resync","roomId":...} 프레임을 보내
+//   클라이언트가 히스토리 API로 빠진 메시지를 다시 읽게 한다
+// - 대기열이 slow-session-depth를 넘은 세션은 세션별 depth gauge로 따로 노출 (모든 세션을 태그로 만들지 않는다)
+@Component
+public class SessionOutboundQueues implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+	static final String CHAT_DESTINATION_PREFIX = "/topic/chat/";
+	static final String RESYNC_TYPE = "resync";
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final MeterRegistry meterRegistry;
+	private final int maxQueueSize;
+	private final OutboundQueuePolicy policy;
+	private final int slowSessionDepth;
+
+	private final ConcurrentHashMap<String, SessionQueue> queues = new ConcurrentHashMap<>();
+	private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+		Thread.ofVirtual().name("ws-session-send-", 0).factory());
+	// STOMP 프레임을 실제 WebSocket 세션으로 보내는 SubProtocolWebSocketHandler (decorate 때 잡아 둔다)
+	private volatile MessageHandler outboundHandler;
+
+	private final DistributionSummary queueDepth;
+	private final Counter droppedNonChat;
+	private final Counter droppedPaused;
+	private final Counter disconnected;
+	private final Counter resyncHints;
+
+	public SessionOutboundQueues(MeterRegistry meterRegistry,
+		@Value("${chat.websocket.outbound.max-queue-size:500}") int maxQueueSize,
+		@Value("${chat.websocket.outbound.policy:drop-non-chat}") String policy,
+		@Value("${chat.websocket.outbound.slow-session-depth:100}") int slowSessionDepth) {
+		this.meterRegistry = meterRegistry;
+		this.maxQueueSize = maxQueueSize;
+		this.policy = OutboundQueuePolicy.parse(policy);
+		this.slowSessionDepth = slowSessionDepth;
+
+		this.queueDepth = DistributionSummary.builder("chat.outbound.queue.depth")
+			.description("프레임을 넣은 시점의 세션별 전송 대기열 길이")
+			.publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		Gauge.builder("chat.outbound.queue.depth.max", queues,
+				map -> map.values().stream().mapToInt(SessionQueue::size).max().orElse(0))
+			.description("가장 밀린 세션의 전송 대기열 길이")
+			.register(meterRegistry);
+		this.droppedNonChat = Counter.builder("chat.outbound.dropped")
+			.tag("reason", "non-chat")
+			.description("대기열이 가득 차 버린 채팅 외 프레임 수")
+			.register(meterRegistry);
+		this.droppedPaused = Counter.builder("chat.outbound.dropped")
+			.tag("reason", "paused")
+			.description("전송이 멈춘 세션에 버린 프레임 수")
+			.register(meterRegistry);
+		this.disconnected = Counter.builder("chat.outbound.disconnected")
+			.description("대기열 한도를 넘어 끊은 세션 수")
+			.register(meterRegistry);
+		this.resyncHints = Counter.builder("chat.outbound.resync")
+			.description("채팅 프레임을 버린 뒤 다시 조회하라고 보낸 resync 프레임 수")
+			.register(meterRegistry);
+	}
+
+	@Override
+	public WebSocketHandler decorate(WebSocketHandler handler) {
+		if (WebSocketHandlerDecorator.unwrap(handler) instanceof MessageHandler messageHandler) {
+			this.outboundHandler = messageHandler;
+		}
+		return new WebSocketHandlerDecorator(handler) {
+			@Override
+			public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+				queues.put(session.getId(), new SessionQueue(session));
+				super.afterConnectionEstablished(session);
+			}
+
+			@Override
+			public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+				SessionQueue queue = queues.remove(session.getId());
+				if (queue != null) {
+					queue.close();
+				}
+				super.afterConnectionClosed(session, closeStatus);
+			}
+		};
+	}
+
+	// CONNECTED, RECEIPT, ERROR 등 MESSAGE 외 프레임은 그대로 outbound 채널로 보낸다
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		if (outboundHandler == null
+			|| SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+			return message;
+		}
+		String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+		SessionQueue queue = sessionId != null ? queues.get(sessionId) : null;
+		if (queue == null) {
+			return message;
+		}
+		queue.offer(message);
+		return null;
+	}
+
+	int depth(String sessionId) {
+		SessionQueue queue = queues.get(sessionId);
+		return queue != null ? queue.size() : 0;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		senders.shutdownNow();
+	}
+
+	private static boolean isChat(Message<?> message) {
+		String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+		return destination != null && destination.startsWith(CHAT_DESTINATION_PREFIX);
+	}
+
+	// 버린 채팅 프레임과 같은 구독(destination, subscription id)으로 보내는 resync 안내
+	private static Message<byte[]> resyncFrame(Message<?> dropped) {
+		String destination = SimpMessageHeaderAccessor.getDestination(dropped.getHeaders());
+		String roomId = destination.substring(CHAT_DESTINATION_PREFIX.length());
+		try {
+			byte[] payload = OBJECT_MAPPER.writeValueAsBytes(new ResyncHint(RESYNC_TYPE, roomId));
+			return MessageBuilder.withPayload(payload).copyHeaders(dropped.getHeaders()).build();
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	record ResyncHint(String type, String roomId) {
+	}
+
+	// 상태는 모두 this 락 안에서만 바꾼다 (전송 자체는 락 밖에서)
+	private final class SessionQueue {
+
+		private final WebSocketSession session;
+		private final ArrayDeque<Message<?>> frames = new ArrayDeque<>();
+		// 멈춘 동안 채팅 프레임을 버린 destination별 마지막 프레임 (풀릴 때 resync 안내로 바꿔 보낸다)
+		private final Map<String, Message<?>> droppedChat = new LinkedHashMap<>();
+		private boolean sending;
+		private boolean paused;
+		private boolean closed;
+		private Gauge depthGauge;
+
+		private SessionQueue(WebSocketSession session) {
+			this.session = session;
+		}
+
+		void offer(Message<?> message) {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				if (paused) {
+					dropWhilePaused(message);
+					return;
+				}
+				if (frames.size() >= maxQueueSize && !makeRoom(message)) {
+					return;
+				}
+				frames.addLast(message);
+				queueDepth.record(frames.size());
+				if (frames.size() >= slowSessionDepth && depthGauge == null) {
+					depthGauge = Gauge.builder("chat.outbound.session.queue.depth", this, SessionQueue::size)
+						.tag("session", session.getId())
+						.description("대기열이 slow-session-depth를 넘은 적 있는 세션의 전송 대기열 길이")
+						.register(meterRegistry);
+				}
+				if (sending) {
+					return;
+				}
+				sending = true;
+			}
+			senders.execute(this::drain);
+		}
+
+		// 새 프레임을 넣을 자리를 만들면 true
+		private boolean makeRoom(Message<?> incoming) {
+			switch (policy) {
+				case DROP_NON_CHAT -> {
+					for (Iterator<Message<?>> it = frames.iterator(); it.hasNext(); ) {
+						if (!isChat(it.next())) {
+							it.remove();
+							droppedNonChat.increment();
+							return true;
+						}
+					}
+					// 밀린 프레임이 모두 채팅이면 새 채팅 외 프레임만 버리고, 채팅은 버리지 않고 연결을 끊는다
+					if (!isChat(incoming)) {
+						droppedNonChat.increment();
+						return false;
+					}
+					disconnect();
+					return false;
+				}
+				case DISCONNECT -> {
+					disconnect();
+					return false;
+				}
+				case PAUSE -> {
+					paused = true;
+					dropWhilePaused(incoming);
+					return false;
+				}
+			}
+			return false;
+		}
+
+		private void dropWhilePaused(Message<?> message) {
+			droppedPaused.increment();
+			if (isChat(message)) {
+				droppedChat.put(SimpMessageHeaderAccessor.getDestination(message.getHeaders()), message);
+			}
+		}
+
+		private void drain() {
+			while (true) {
+				Message<?> next;
+				synchronized (this) {
+					next = frames.pollFirst();
+					if (paused && frames.size() <= maxQueueSize / 2) {
+						paused = false;
+						// 이미 대기 중인 프레임 뒤에 붙여 버려진 메시지 이후 시점에 다시 조회하게 한다
+						droppedChat.values().forEach(dropped -> frames.addLast(resyncFrame(dropped)));
+						resyncHints.increment(droppedChat.size());
+						droppedChat.clear();
+						if (next == null) {
+							next = frames.pollFirst();
+						}
+					}
+					if (next == null) {
+						sending = false;
+						return;
+					}
+				}
+				try {
+					outboundHandler.handleMessage(next);
+				} catch (RuntimeException e) {
+					System.err.println("Failed to send frame to session " + session.getId() + ": " + e.getMessage());
+				}
+			}
+		}
+
+		// 전송 중인 스레드가 소켓 쓰기에 막혀 있을 수 있으므로 close는 별도 스레드에서
+		private void disconnect() {
+			close();
+			disconnected.increment();
+			senders.execute(() -> {
+				try {
+					session.close(CloseStatus.SESSION_NOT_RELIABLE);
+				} catch (IOException e) {
+					System.err.println("Failed to close slow session " + session.getId() + ": " + e.getMessage());
+				}
+			});
+		}
+
+		synchronized void close() {
+			closed = true;
+			frames.clear();
+			droppedChat.clear();
+			if (depthGauge != null) {
+				meterRegistry.remove(depthGauge);
+				depthGauge = null;
+			}
+		}
+
+		synchronized int size() {
+			return frames.size();
+		}
+	}
+}
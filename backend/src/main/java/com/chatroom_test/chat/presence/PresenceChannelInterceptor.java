@@ -0,0 +1,77 @@
+package com.chatroom_test.chat.presence;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+// clientInboundChannel의 CONNECT/SUBSCRIBE/DISCONNECT로 PresenceRegistry를 갱신
+// - 사용자는 인증된 Principal, CONNECT의 username 헤더, 개인 토픽 구독(/topic/unreadCount/{username} 등) 순으로 판단
+@Component
+public class PresenceChannelInterceptor implements ChannelInterceptor {
+
+	static final String USERNAME_HEADER = "username";
+	private static final List<String> PERSONAL_TOPIC_PREFIXES = List.of("/topic/unreadCount/", "/topic/notification/");
+
+	private final PresenceRegistry presenceRegistry;
+
+	public PresenceChannelInterceptor(PresenceRegistry presenceRegistry) {
+		this.presenceRegistry = presenceRegistry;
+	}
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+		String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+		if (type == null || sessionId == null) {
+			return message;
+		}
+
+		switch (type) {
+			case CONNECT -> {
+				String username = connectedUser(message);
+				if (username != null) {
+					presenceRegistry.connect(sessionId, username);
+				}
+			}
+			case SUBSCRIBE -> {
+				if (!presenceRegistry.isBound(sessionId)) {
+					String username = personalTopicOwner(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+					if (username != null) {
+						presenceRegistry.connect(sessionId, username);
+					}
+				}
+			}
+			case DISCONNECT -> presenceRegistry.disconnect(sessionId);
+			default -> {
+			}
+		}
+		return message;
+	}
+
+	private String connectedUser(Message<?> message) {
+		Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+		if (user != null) {
+			return user.getName();
+		}
+		String username = SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(USERNAME_HEADER);
+		return username != null && !username.isBlank() ? username : null;
+	}
+
+	static String personalTopicOwner(String destination) {
+		if (destination == null) {
+			return null;
+		}
+		for (String prefix : PERSONAL_TOPIC_PREFIXES) {
+			if (destination.startsWith(prefix) && destination.length() > prefix.length()) {
+				return destination.substring(prefix.length());
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,154 @@
+package com.chatroom_test.chat.presence;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.chatroom_test.chat.config.ChatNode;
+import com.chatroom_test.chat.dto.PresenceUpdate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+
+// 이 노드에 연결된 STOMP 세션을 사용자별로 색인 (PresenceChannelInterceptor가 connect/subscribe/disconnect로 갱신)
+// - 사용자의 첫 세션 연결, 마지막 세션 종료 시 /topic/presence/{username} 으로 상태를 알린다
+// - chat.broker.mode=redis 이면 사용자별로 세션이 있는 노드 목록을 Redis set에 두고 다른 노드의 접속도 확인
+@Component
+public class PresenceRegistry {
+
+	static final String NODES_KEY_PREFIX = "presence:nodes:";
+
+	private final SimpMessagingTemplate messagingTemplate;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ChatNode chatNode;
+	private final boolean clusterMode;
+
+	private final ConcurrentHashMap<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, String> userBySession = new ConcurrentHashMap<>();
+
+	// SimpMessagingTemplate는 WebSocket 설정이 끝난 뒤에 만들어지므로 지연 주입 (WebSocketConfig -> interceptor -> registry 순환 방지)
+	public PresenceRegistry(@Lazy SimpMessagingTemplate messagingTemplate,
+		StringRedisTemplate stringRedisTemplate,
+		ChatNode chatNode,
+		MeterRegistry meterRegistry,
+		@Value("${chat.broker.mode:simple}") String brokerMode) {
+		this.messagingTemplate = messagingTemplate;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.chatNode = chatNode;
+		this.clusterMode = "redis".equals(brokerMode);
+
+		meterRegistry.gaugeMapSize("chat.presence.users", Tags.empty(), sessionsByUser);
+		meterRegistry.gaugeMapSize("chat.presence.sessions", Tags.empty(), userBySession);
+	}
+
+	// 세션을 사용자에 연결 (이미 연결된 세션이면 무시)
+	public void connect(String sessionId, String username) {
+		if (userBySession.putIfAbsent(sessionId, username) != null) {
+			return;
+		}
+		AtomicBoolean changed = new AtomicBoolean(false);
+		sessionsByUser.compute(username, (user, sessions) -> {
+			Set<String> target = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+			if (sessions == null) {
+				changed.set(updateNodePresence(username, true));
+			}
+			target.add(sessionId);
+			return target;
+		});
+		if (changed.get()) {
+			publish(username, true);
+		}
+	}
+
+	// 세션 종료 (DISCONNECT는 클라이언트 프레임과 연결 종료로 두 번 올 수 있어 중복 호출을 허용)
+	public void disconnect(String sessionId) {
+		String username = userBySession.remove(sessionId);
+		if (username == null) {
+			return;
+		}
+		AtomicBoolean changed = new AtomicBoolean(false);
+		sessionsByUser.computeIfPresent(username, (user, sessions) -> {
+			sessions.remove(sessionId);
+			if (!sessions.isEmpty()) {
+				return sessions;
+			}
+			changed.set(updateNodePresence(username, false));
+			return null;
+		});
+		if (changed.get()) {
+			publish(username, false);
+		}
+	}
+
+	public boolean isBound(String sessionId) {
+		return userBySession.containsKey(sessionId);
+	}
+
+	// 어느 노드에든 살아 있는 세션이 있으면 true
+	public boolean isOnline(String username) {
+		if (sessionsByUser.containsKey(username)) {
+			return true;
+		}
+		if (!clusterMode) {
+			return false;
+		}
+		Long nodes = stringRedisTemplate.opsForSet().size(NODES_KEY_PREFIX + username);
+		return nodes != null && nodes > 0;
+	}
+
+	public int getSessionCount(String username) {
+		Set<String> sessions = sessionsByUser.get(username);
+		return sessions != null ? sessions.size() : 0;
+	}
+
+	// 사용자의 첫 세션 연결/마지막 세션 종료 시 sessionsByUser.compute 안에서 호출
+	// 같은 사용자의 연결과 종료가 겹쳐도 SADD/SREM이 로컬 상태 변경과 같은 순서로 실행되어
+	// 세션이 남아 있는데 이 노드가 Redis set에서 빠지는 일이 없다
+	// 사용자 상태가 바뀌었으면(클러스터 전체에서 첫 노드/마지막 노드) true
+	private boolean updateNodePresence(String username, boolean online) {
+		if (!clusterMode) {
+			return true;
+		}
+		String key = NODES_KEY_PREFIX + username;
+		try {
+			if (online) {
+				stringRedisTemplate.opsForSet().add(key, chatNode.getId());
+				Long nodes = stringRedisTemplate.opsForSet().size(key);
+				return nodes != null && nodes == 1;
+			}
+			stringRedisTemplate.opsForSet().remove(key, chatNode.getId());
+			Long nodes = stringRedisTemplate.opsForSet().size(key);
+			return nodes == null || nodes == 0;
+		} catch (RuntimeException e) {
+			// compute 안에서 예외를 던지면 로컬 세션 색인이 갱신되지 않으므로 기록만 하고 상태 변경으로 본다
+			System.err.println("Failed to update presence for " + username + ": " + e.getMessage());
+			return true;
+		}
+	}
+
+	private void publish(String username, boolean online) {
+		messagingTemplate.convertAndSend("/topic/presence/" + username, new PresenceUpdate(username, online));
+	}
+
+	// 노드가 내려가면 이 노드의 세션은 모두 끊긴 것으로 정리
+	@PreDestroy
+	public void shutdown() {
+		if (!clusterMode) {
+			return;
+		}
+		for (String username : sessionsByUser.keySet()) {
+			try {
+				stringRedisTemplate.opsForSet().remove(NODES_KEY_PREFIX + username, chatNode.getId());
+			} catch (RuntimeException e) {
+				System.err.println("Failed to clear presence for " + username + ": " + e.getMessage());
+			}
+		}
+	}
+}
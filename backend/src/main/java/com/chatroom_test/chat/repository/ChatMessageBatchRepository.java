@@ -0,0 +1,61 @@
+package com.chatroom_test.chat.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+// Redis 버퍼에서 꺼낸 메시지를 JDBC batch로 직접 insert (id는 sendMessage 시점에 이미 발급됨)
+// 같은 방, 같은 sender의 message_id가 이미 있는 행은 건너뛰므로 같은 batch를 다시 플러시해도 중복 저장되지 않는다
+@Repository
+public class ChatMessageBatchRepository {
+
+	static final String INSERT_IF_ABSENT_SQL =
+		"insert into chat_messages (id, message_id, sender, receiver, content, timestamp, file_url, thumbnail_url, chat_room_room_id) "
+			+ "select ?, ?, ?, ?, ?, ?, ?, ?, ? "
+			+ "where not exists (select 1 from chat_messages "
+			+ "where chat_room_room_id = ? and sender = ? and message_id = ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ChatMessageBatchRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	// 실제로 insert 된 행 수를 반환 (이미 저장된 message_id는 제외)
+	public int insertAll(List<ChatMessage> messages) {
+		if (messages.isEmpty()) {
+			return 0;
+		}
+		int[][] results = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, messages, messages.size(),
+			(ps, message) -> {
+				ps.setLong(1, message.getId());
+				ps.setString(2, message.getMessageId());
+				ps.setString(3, message.getSender());
+				ps.setString(4, message.getReceiver());
+				ps.setString(5, message.getContent());
+				if (message.getTimestamp() != null) {
+					ps.setTimestamp(6, Timestamp.valueOf(message.getTimestamp()));
+				} else {
+					ps.setNull(6, Types.TIMESTAMP);
+				}
+				ps.setString(7, message.getFileUrl());
+				ps.setString(8, message.getThumbnailUrl());
+				ps.setString(9, message.getChatRoom().getRoomId());
+				ps.setString(10, message.getChatRoom().getRoomId());
+				ps.setString(11, message.getSender());
+				ps.setString(12, message.getMessageId());
+			});
+		int inserted = 0;
+		for (int[] batch : results) {
+			for (int count : batch) {
+				inserted += Math.max(count, 0);
+			}
+		}
+		return inserted;
+	}
+}
@@ -2,7 +2,9 @@ package com.chatroom_test.chat.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,13 +18,20 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 	// findByChatRoomRoomIdOrderByIdAsc: 채팅방(roomId) 기준으로 오름차순 정렬
 	List<ChatMessage> findByChatRoomRoomIdOrderByIdAsc(String roomId);
 
+	// 채팅 내역 페이지 조회: (chat_room_room_id, id) 인덱스를 타는 keyset 페이지네이션
+	List<ChatMessage> findByChatRoomRoomIdOrderByIdDesc(String roomId, Pageable pageable);
+
+	List<ChatMessage> findByChatRoomRoomIdAndIdLessThanOrderByIdDesc(String roomId, Long id, Pageable pageable);
+
+	// 채팅방의 마지막 메시지 (inbox 재구성용)
+	Optional<ChatMessage> findFirstByChatRoomRoomIdOrderByIdDesc(String roomId);
+
 	// 채팅방의 마지막 읽은 시간 이후에 수신된 상대방 메시지 개수를 계산
 	@Query("select count(cm) from ChatMessage cm where cm.chatRoom.roomId = :roomId and cm.timestamp > :lastRead and cm.sender <> :username")
 	long countUnreadMessages(@Param("roomId") String roomId,
 		@Param("lastRead") LocalDateTime lastRead,
 		@Param("username") String username);
 
-	// 중복 메시지 저장 여부 확인
-	boolean existsByChatRoomRoomIdAndTimestamp(@Param("roomId") String roomId,
-		@Param("timestamp") LocalDateTime timestamp);
+	// 한 번도 읽지 않은 채팅방의 상대방 메시지 개수
+	long countByChatRoomRoomIdAndSenderNot(String roomId, String sender);
 }
@@ -4,12 +4,30 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.chatroom_test.chat.entity.ChatRoom;
 
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
 	Optional<ChatRoom> findByRoomId(String roomId);
 
-	List<ChatRoom> findByClientOrExpert(String client, String expert);
+	// 사용자가 참여한 채팅방: client = ? OR expert = ? 는 인덱스를 타지 못하므로 각 인덱스를 타는 두 조회를 합친다
+	// (UNION이 중복을 제거하므로 나와의 채팅방도 한 번만 나온다)
+	@Query(value = "select * from chat_rooms where client = :username "
+		+ "union select * from chat_rooms where expert = :username",
+		nativeQuery = true)
+	List<ChatRoom> findByMember(@Param("username") String username);
+
+	// 채팅방이 없을 때만 생성 (동시에 첫 메시지가 와도 기존 방을 덮어쓰지 않도록 merge 대신 insert 사용)
+	@Transactional
+	@Modifying
+	@Query(value = "insert into chat_rooms (room_id, client, expert) "
+		+ "select :roomId, :client, :expert where not exists (select 1 from chat_rooms where room_id = :roomId)",
+		nativeQuery = true)
+	int insertIfAbsent(@Param("roomId") String roomId, @Param("client") String client,
+		@Param("expert") String expert);
 
 }
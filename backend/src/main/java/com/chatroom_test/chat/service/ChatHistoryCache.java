@@ -0,0 +1,286 @@
+package com.chatroom_test.chat.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.chatroom_test.chat.config.ChatNode;
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.repository.ChatMessageRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 방별 최근 메시지(hot tail)만 Redis 리스트에 보관하는 조회 캐시
+// - 리스트는 항상 마지막 max-messages 개로 LTRIM, 접근할 때마다 TTL을 갱신해 한동안 안 읽힌 방은 만료
+// - 캐시된 방은 LRU sorted set(마지막 접근 시각)으로 관리해 max-rooms를 넘으면 가장 오래된 방부터 제거
+// - 캐시 미스 시 같은 방의 동시 조회는 노드 안에서는 하나의 로드를 공유하고,
+//   노드 간에는 Redis 락을 잡은 한 곳만 DB를 읽어 채운다 (나머지는 잠깐 기다렸다 채워진 캐시를 읽음)
+// - append마다 방별 version을 올리고, DB에서 읽은 스냅샷은 키가 없고 읽기 전과 version이 같을 때만 채운다
+//   (로드 중에 들어온 메시지는 키가 없어 RPUSHX가 버리므로, 그 메시지가 빠진 스냅샷으로 덮어쓰지 않도록)
+@Component
+public class ChatHistoryCache {
+
+	static final String KEY_PREFIX = "chat:messages:";
+	static final String LRU_KEY = "chat:history:lru";
+	private static final String LOCK_KEY_PREFIX = "chat:history:lock:";
+	private static final String VERSION_KEY_PREFIX = "chat:history:version:";
+	private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
+	private static final int LOCK_WAIT_ATTEMPTS = 10;
+	private static final long LOCK_WAIT_MILLIS = 20;
+
+	// 키가 없고 version이 ARGV[1]과 같을 때만 ARGV[4..]로 채운다 (1: 채움, 0: 이미 있음, -1: 그 사이 append 발생)
+	private static final byte[] FILL_SCRIPT = keyBytes(
+		"if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+			+ "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return -1 end "
+			+ "for i = 4, #ARGV do redis.call('RPUSH', KEYS[1], ARGV[i]) end "
+			+ "redis.call('LTRIM', KEYS[1], -tonumber(ARGV[3]), -1) "
+			+ "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+			+ "return 1");
+
+	// 자기 노드가 잡은 락일 때만 해제 (LOCK_TIMEOUT이 지나 다른 노드가 잡은 락은 지우지 않음)
+	private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+		"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+		Long.class);
+
+	private final RedisTemplate<String, ChatMessage> redisTemplate;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ChatMessageRepository chatMessageRepository;
+	private final MessageFlushService messageFlushService;
+	private final ChatNode chatNode;
+	private final int maxMessages;
+	private final int maxRooms;
+	private final Duration ttl;
+
+	private final ConcurrentHashMap<String, CompletableFuture<List<ChatMessage>>> loading = new ConcurrentHashMap<>();
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter dbLoads;
+	private final Counter evictedRooms;
+	private final Counter staleFills;
+
+	public ChatHistoryCache(RedisTemplate<String, ChatMessage> redisTemplate,
+		StringRedisTemplate stringRedisTemplate,
+		ChatMessageRepository chatMessageRepository,
+		MessageFlushService messageFlushService,
+		ChatNode chatNode,
+		MeterRegistry meterRegistry,
+		@Value("${chat.history-cache.max-messages:200}") int maxMessages,
+		@Value("${chat.history-cache.max-rooms:10000}") int maxRooms,
+		@Value("${chat.history-cache.ttl:30m}") Duration ttl) {
+		this.redisTemplate = redisTemplate;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.chatMessageRepository = chatMessageRepository;
+		this.messageFlushService = messageFlushService;
+		this.chatNode = chatNode;
+		this.maxMessages = maxMessages;
+		this.maxRooms = maxRooms;
+		this.ttl = ttl;
+
+		this.hits = Counter.builder("chat.history.cache")
+			.tag("result", "hit")
+			.register(meterRegistry);
+		this.misses = Counter.builder("chat.history.cache")
+			.tag("result", "miss")
+			.register(meterRegistry);
+		this.dbLoads = Counter.builder("chat.history.cache.loads")
+			.description("캐시를 채우기 위해 DB를 조회한 횟수")
+			.register(meterRegistry);
+		this.evictedRooms = Counter.builder("chat.history.cache.evicted")
+			.description("LRU 정책으로 제거된 방 수")
+			.register(meterRegistry);
+		this.staleFills = Counter.builder("chat.history.cache.fill.skipped")
+			.description("DB 로드 중 새 메시지가 들어와 캐시를 채우지 않은 횟수")
+			.register(meterRegistry);
+	}
+
+	public int getMaxMessages() {
+		return maxMessages;
+	}
+
+	// 방의 최근 메시지 (오래된 순, 최대 max-messages 개)
+	public List<ChatMessage> getTail(String roomId) {
+		List<ChatMessage> cached = redisTemplate.opsForList().range(KEY_PREFIX + roomId, 0, -1);
+		if (cached != null && !cached.isEmpty()) {
+			hits.increment();
+			touch(roomId);
+			return cached;
+		}
+		misses.increment();
+
+		CompletableFuture<List<ChatMessage>> mine = new CompletableFuture<>();
+		CompletableFuture<List<ChatMessage>> inFlight = loading.putIfAbsent(roomId, mine);
+		if (inFlight != null) {
+			return inFlight.join();
+		}
+		try {
+			List<ChatMessage> loaded = loadAcrossNodes(roomId);
+			mine.complete(loaded);
+			return loaded;
+		} catch (RuntimeException e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(roomId, mine);
+		}
+	}
+
+	// 새 메시지를 이미 캐시된 방에만 이어 붙이고 hot tail 길이를 유지 (한 번의 pipeline)
+	public void append(ChatMessage message) {
+		String roomId = message.getChatRoom().getRoomId();
+		byte[][] values = {valueSerializer().serialize(message)};
+		redisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			append(connection, roomId, values);
+			return null;
+		});
+	}
+
+	// 같은 방 메시지 여러 건을 호출자의 파이프라인 안에서 이어 붙인다
+	public void append(RedisConnection connection, String roomId, byte[][] values) {
+		byte[] key = keyBytes(KEY_PREFIX + roomId);
+		byte[] versionKey = keyBytes(VERSION_KEY_PREFIX + roomId);
+		for (byte[] value : values) {
+			connection.listCommands().rPushX(key, value);
+		}
+		connection.listCommands().lTrim(key, -maxMessages, -1);
+		connection.keyCommands().expire(key, ttl.toSeconds());
+		connection.stringCommands().incr(versionKey);
+		connection.keyCommands().expire(versionKey, ttl.toSeconds());
+	}
+
+	// TTL로 이미 만료된 방을 LRU 목록에서 지우고, max-rooms를 넘는 만큼 가장 오래 안 읽힌 방을 제거
+	@Scheduled(fixedDelayString = "${chat.history-cache.evict-interval-ms:60000}")
+	public void evictColdRooms() {
+		try {
+			long expiredBefore = System.currentTimeMillis() - ttl.toMillis();
+			stringRedisTemplate.opsForZSet().removeRangeByScore(LRU_KEY, 0, expiredBefore);
+
+			Long size = stringRedisTemplate.opsForZSet().zCard(LRU_KEY);
+			long overflow = size != null ? size - maxRooms : 0;
+			if (overflow <= 0) {
+				return;
+			}
+			Set<String> coldRooms = stringRedisTemplate.opsForZSet().range(LRU_KEY, 0, overflow - 1);
+			if (coldRooms == null || coldRooms.isEmpty()) {
+				return;
+			}
+			List<String> keys = new ArrayList<>(coldRooms.size());
+			coldRooms.forEach(roomId -> keys.add(KEY_PREFIX + roomId));
+			redisTemplate.delete(keys);
+			stringRedisTemplate.opsForZSet().remove(LRU_KEY, coldRooms.toArray());
+			evictedRooms.increment(coldRooms.size());
+		} catch (RuntimeException e) {
+			System.err.println("Failed to evict cold chat history caches: " + e.getMessage());
+		}
+	}
+
+	private List<ChatMessage> loadAcrossNodes(String roomId) {
+		String lockKey = LOCK_KEY_PREFIX + roomId;
+		Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, chatNode.getId(), LOCK_TIMEOUT);
+		if (Boolean.TRUE.equals(locked)) {
+			try {
+				String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + roomId);
+				List<ChatMessage> loaded = loadFromDatabase(roomId);
+				fill(roomId, loaded, version);
+				return loaded;
+			} finally {
+				stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), chatNode.getId());
+			}
+		}
+
+		// 다른 노드가 채우는 중이면 잠깐 기다렸다가 캐시를 읽고, 끝내 안 채워지면 DB에서 직접 읽는다 (캐시는 채우지 않음)
+		for (int attempt = 0; attempt < LOCK_WAIT_ATTEMPTS; attempt++) {
+			try {
+				Thread.sleep(LOCK_WAIT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			List<ChatMessage> cached = redisTemplate.opsForList().range(KEY_PREFIX + roomId, 0, -1);
+			if (cached != null && !cached.isEmpty()) {
+				return cached;
+			}
+		}
+		return loadFromDatabase(roomId);
+	}
+
+	// DB의 마지막 max-messages 개 + 아직 플러시되지 않은 버퍼 메시지 중 최근 max-messages 개
+	// 플러시가 커밋한 뒤 버퍼를 LTRIM 하기 전이면 양쪽에 있으므로 id로 중복 제거
+	private List<ChatMessage> loadFromDatabase(String roomId) {
+		dbLoads.increment();
+		TreeMap<Long, ChatMessage> merged = new TreeMap<>();
+		chatMessageRepository.findByChatRoomRoomIdOrderByIdDesc(roomId, PageRequest.of(0, maxMessages))
+			.forEach(message -> merged.put(message.getId(), message));
+		for (ChatMessage pending : messageFlushService.getPendingMessages(roomId)) {
+			if (pending.getId() != null) {
+				merged.putIfAbsent(pending.getId(), pending);
+			}
+		}
+		List<ChatMessage> messages = new ArrayList<>(merged.values());
+		if (messages.size() > maxMessages) {
+			return new ArrayList<>(messages.subList(messages.size() - maxMessages, messages.size()));
+		}
+		return messages;
+	}
+
+	// 로드 전에 읽은 version 이후 append가 없었을 때만 채운다 (건너뛰면 다음 조회가 다시 로드)
+	private void fill(String roomId, List<ChatMessage> messages, String version) {
+		if (messages.isEmpty()) {
+			return;
+		}
+		byte[][] keysAndArgs = new byte[5 + messages.size()][];
+		keysAndArgs[0] = keyBytes(KEY_PREFIX + roomId);
+		keysAndArgs[1] = keyBytes(VERSION_KEY_PREFIX + roomId);
+		keysAndArgs[2] = keyBytes(version != null ? version : "");
+		keysAndArgs[3] = keyBytes(String.valueOf(ttl.toSeconds()));
+		keysAndArgs[4] = keyBytes(String.valueOf(maxMessages));
+		for (int i = 0; i < messages.size(); i++) {
+			keysAndArgs[5 + i] = valueSerializer().serialize(messages.get(i));
+		}
+		Long filled = redisTemplate.execute((RedisCallback<Long>)connection ->
+			connection.scriptingCommands().eval(FILL_SCRIPT, ReturnType.INTEGER, 2, keysAndArgs));
+		if (filled != null && filled < 0) {
+			staleFills.increment();
+			return;
+		}
+		touch(roomId);
+	}
+
+	private void touch(String roomId) {
+		redisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			connection.keyCommands().expire(keyBytes(KEY_PREFIX + roomId), ttl.toSeconds());
+			touch(connection, roomId);
+			return null;
+		});
+	}
+
+	private void touch(RedisConnection connection, String roomId) {
+		connection.zSetCommands().zAdd(keyBytes(LRU_KEY), System.currentTimeMillis(), keyBytes(roomId));
+	}
+
+	@SuppressWarnings("unchecked")
+	private RedisSerializer<ChatMessage> valueSerializer() {
+		return (RedisSerializer<ChatMessage>)redisTemplate.getValueSerializer();
+	}
+
+	private static byte[] keyBytes(String key) {
+		return RedisSerializer.string().serialize(key);
+	}
+}
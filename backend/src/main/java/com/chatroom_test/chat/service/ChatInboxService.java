@@ -0,0 +1,167 @@
+package com.chatroom_test.chat.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.chatroom_test.chat.dto.ChatRoomResponse;
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.chatroom_test.chat.repository.ChatMessageRepository;
+import com.chatroom_test.chat.repository.ChatRoomRepository;
+
+// 채팅방 목록(inbox) 프로젝션
+// - inbox:{user}      (sorted set) roomId -> 마지막 활동 시각(epoch ms)
+// - inbox:room:{room} (hash)       client, expert, lastMessage, lastMessageTime
+// - inbox:built:{user} (string)    DB에서 inbox를 채운 적이 있는지 표시 (Redis가 비워진 뒤 새 메시지로 일부만 생긴 inbox도 다시 채우도록)
+// 목록 조회는 ZREVRANGE 1회 + (방 요약 HGETALL, unread HMGET) 파이프라인 1회로 처리
+@Service
+public class ChatInboxService {
+
+	private static final String INBOX_KEY_PREFIX = "inbox:";
+	private static final String ROOM_SUMMARY_KEY_PREFIX = "inbox:room:";
+	private static final String BUILT_KEY_PREFIX = "inbox:built:";
+	private static final String UNREAD_KEY_PREFIX = "unread:";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ChatRoomRepository chatRoomRepository;
+	private final ChatMessageRepository chatMessageRepository;
+	private final MessageFlushService messageFlushService;
+	private final UnreadCountService unreadCountService;
+	private final ChatRoomCache chatRoomCache;
+
+	public ChatInboxService(StringRedisTemplate stringRedisTemplate,
+		ChatRoomRepository chatRoomRepository,
+		ChatMessageRepository chatMessageRepository,
+		MessageFlushService messageFlushService,
+		UnreadCountService unreadCountService,
+		ChatRoomCache chatRoomCache) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.chatRoomRepository = chatRoomRepository;
+		this.chatMessageRepository = chatMessageRepository;
+		this.messageFlushService = messageFlushService;
+		this.unreadCountService = unreadCountService;
+		this.chatRoomCache = chatRoomCache;
+	}
+
+	// 메시지 전송 시 방 요약과 양쪽 사용자의 inbox 정렬 순서를 갱신
+	public void onMessage(ChatRoom room, ChatMessage message) {
+		stringRedisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			onMessage((StringRedisConnection)connection, room, message);
+			return null;
+		});
+	}
+
+	// 호출자의 파이프라인 안에서 갱신 (여러 건을 보낸 경우 마지막 메시지만 넘긴다)
+	public void onMessage(StringRedisConnection conn, ChatRoom room, ChatMessage message) {
+		long activity = toEpochMillis(message.getTimestamp());
+		writeSummary(conn, room, message);
+		conn.zAdd(INBOX_KEY_PREFIX + room.getClient(), activity, room.getRoomId());
+		conn.zAdd(INBOX_KEY_PREFIX + room.getExpert(), activity, room.getRoomId());
+	}
+
+	// 마지막 활동 순으로 정렬된 채팅방 목록 페이지
+	public List<ChatRoomResponse> getInbox(String username, int page, int size) {
+		long start = (long)page * size;
+		if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(BUILT_KEY_PREFIX + username))) {
+			rebuild(username);
+		}
+		Set<String> roomIds = stringRedisTemplate.opsForZSet()
+			.reverseRange(INBOX_KEY_PREFIX + username, start, start + size - 1);
+		if (roomIds == null || roomIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<String> ids = new ArrayList<>(roomIds);
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			StringRedisConnection conn = (StringRedisConnection)connection;
+			for (String roomId : ids) {
+				conn.hGetAll(ROOM_SUMMARY_KEY_PREFIX + roomId);
+			}
+			conn.hMGet(UNREAD_KEY_PREFIX + username, ids.toArray(new String[0]));
+			return null;
+		});
+
+		@SuppressWarnings("unchecked")
+		List<String> unreadCounts = (List<String>)results.get(ids.size());
+		List<ChatRoomResponse> responses = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			@SuppressWarnings("unchecked")
+			Map<String, String> summary = (Map<String, String>)results.get(i);
+			if (summary == null || summary.isEmpty()) {
+				continue;
+			}
+			ChatRoom room = new ChatRoom(ids.get(i), summary.get("client"), summary.get("expert"));
+			String unread = unreadCounts != null ? unreadCounts.get(i) : null;
+			long unreadCount = unread != null ? Long.parseLong(unread) : unreadCount(room, username);
+			String lastMessageTime = summary.get("lastMessageTime");
+			responses.add(new ChatRoomResponse(room, username, unreadCount,
+				summary.getOrDefault("lastMessage", ""),
+				lastMessageTime != null ? LocalDateTime.parse(lastMessageTime) : null));
+		}
+		return responses;
+	}
+
+	// 콜드 스타트: DB의 채팅방과 마지막 메시지로 inbox를 다시 채운 뒤 built 표시
+	// 그 사이 onMessage가 기록한 더 최근 활동 시각은 덮어쓰지 않는다 (ZADD GT)
+	int rebuild(String username) {
+		List<ChatRoom> rooms = chatRoomRepository.findByMember(username);
+		for (ChatRoom room : rooms) {
+			ChatMessage lastMessage = messageFlushService.getLatestPendingMessage(room.getRoomId());
+			if (lastMessage == null) {
+				lastMessage = chatMessageRepository.findFirstByChatRoomRoomIdOrderByIdDesc(room.getRoomId())
+					.orElse(null);
+			}
+			ChatMessage last = lastMessage;
+			long activity = last != null ? toEpochMillis(last.getTimestamp()) : 0;
+			stringRedisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+				StringRedisConnection conn = (StringRedisConnection)connection;
+				if (last != null) {
+					writeSummary(conn, room, last);
+				} else {
+					conn.hSetNX(ROOM_SUMMARY_KEY_PREFIX + room.getRoomId(), "client", room.getClient());
+					conn.hSetNX(ROOM_SUMMARY_KEY_PREFIX + room.getRoomId(), "expert", room.getExpert());
+				}
+				conn.zAdd(INBOX_KEY_PREFIX + username, activity, room.getRoomId(), ZAddArgs.empty().gt());
+				return null;
+			});
+		}
+		stringRedisTemplate.opsForValue().set(BUILT_KEY_PREFIX + username, "1");
+		return rooms.size();
+	}
+
+	private void writeSummary(StringRedisConnection conn, ChatRoom room, ChatMessage message) {
+		String key = ROOM_SUMMARY_KEY_PREFIX + room.getRoomId();
+		conn.hSet(key, "client", room.getClient());
+		conn.hSet(key, "expert", room.getExpert());
+		if (message != null) {
+			conn.hSet(key, "lastMessage", message.getContent() != null ? message.getContent() : "");
+			if (message.getTimestamp() != null) {
+				conn.hSet(key, "lastMessageTime", message.getTimestamp().toString());
+			}
+		}
+	}
+
+	private long unreadCount(ChatRoom room, String username) {
+		// 카운터가 없는 방만 실제 방 정보(lastRead)로 재계산
+		ChatRoom savedRoom = chatRoomCache.get(room.getRoomId());
+		return savedRoom != null ? unreadCountService.getUnreadCount(savedRoom, username) : 0;
+	}
+
+	private long toEpochMillis(LocalDateTime time) {
+		if (time == null) {
+			return System.currentTimeMillis();
+		}
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+}
@@ -0,0 +1,126 @@
+package com.chatroom_test.chat.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.chatroom_test.chat.dto.ChatRoomCreationResult;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.chatroom_test.chat.repository.ChatRoomRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// 메시지 전송 경로의 채팅방 조회를 줄이기 위한 로컬 캐시 (크기 + TTL 기반 만료)
+// chat.broker.mode=redis 이면 무효화(읽음 처리 등)를 Redis pub/sub으로 다른 노드에도 알린다 (UserLookupService와 같은 방식)
+@Component
+public class ChatRoomCache {
+
+	static final String ROOM_CHANGED_CHANNEL = "chat:room:changed";
+
+	private final ChatRoomRepository chatRoomRepository;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final Cache<String, ChatRoom> cache;
+	private final boolean relayEnabled;
+
+	public ChatRoomCache(ChatRoomRepository chatRoomRepository,
+		StringRedisTemplate stringRedisTemplate,
+		MeterRegistry meterRegistry,
+		ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+		@Value("${chat.room-cache.maximum-size:10000}") long maximumSize,
+		@Value("${chat.room-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+		this.chatRoomRepository = chatRoomRepository;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(expireAfterWrite)
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "chatRooms");
+
+		// Redis broker relay를 쓰는 경우에만 listener container가 있다
+		RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+		this.relayEnabled = container != null;
+		if (container != null) {
+			container.addMessageListener((message, pattern) ->
+					cache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+				new ChannelTopic(ROOM_CHANGED_CHANNEL));
+		}
+	}
+
+	// 없으면 null
+	public ChatRoom get(String roomId) {
+		ChatRoom cached = cache.getIfPresent(roomId);
+		if (cached != null) {
+			return cached;
+		}
+		// DB 조회는 캐시의 compute(내부 synchronized) 밖에서 수행해 가상 스레드가 carrier에 고정되지 않도록 한다
+		ChatRoom room = chatRoomRepository.findByRoomId(roomId).orElse(null);
+		if (room != null) {
+			cache.put(roomId, room);
+		}
+		return room;
+	}
+
+	// 채팅방 조회, 없으면 생성 (신규 생성 여부 포함)
+	// 동시에 같은 방의 첫 메시지가 와도 insert-if-absent로 한 요청만 생성에 성공한다
+	public ChatRoomCreationResult getOrCreate(String roomId, String client, String expert) {
+		ChatRoom room = get(roomId);
+		if (room != null) {
+			return new ChatRoomCreationResult(room, false);
+		}
+		boolean created = insertIfAbsent(roomId, client, expert);
+		room = chatRoomRepository.findByRoomId(roomId)
+			.orElseThrow(() -> new RuntimeException("채팅방을 생성할 수 없습니다."));
+		cache.put(roomId, room);
+		return new ChatRoomCreationResult(room, created);
+	}
+
+	public void invalidate(String roomId) {
+		cache.invalidate(roomId);
+		// 트랜잭션 안에서 호출되면 커밋 전 값이 다시 캐시되지 않도록 커밋 후 한 번 더 제거하고 다른 노드에 알린다
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					cache.invalidate(roomId);
+					publish(roomId);
+				}
+			});
+		} else {
+			publish(roomId);
+		}
+	}
+
+	private void publish(String roomId) {
+		if (!relayEnabled) {
+			return;
+		}
+		try {
+			stringRedisTemplate.convertAndSend(ROOM_CHANGED_CHANNEL, roomId);
+		} catch (Exception e) {
+			// 다른 노드는 캐시 만료(chat.room-cache.expire-after-write) 때 반영된다
+			System.err.println("Failed to publish room change for " + roomId + ": " + e.getMessage());
+		}
+	}
+
+	private boolean insertIfAbsent(String roomId, String client, String expert) {
+		try {
+			return chatRoomRepository.insertIfAbsent(roomId, client, expert) > 0;
+		} catch (DataIntegrityViolationException e) {
+			// 다른 노드가 먼저 생성한 경우
+			return false;
+		}
+	}
+}
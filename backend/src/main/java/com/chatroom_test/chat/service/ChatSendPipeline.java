@@ -0,0 +1,206 @@
+package com.chatroom_test.chat.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.chatroom_test.chat.dto.ChatNotification;
+import com.chatroom_test.chat.entity.ChatMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// 메시지 전송 파이프라인: inbound 스레드는 대기열에 넣고 바로 반환하고,
+// 실제 처리(ChatService.sendMessage)는 방별 대기열을 순서대로 비우는 가상 스레드에서 수행
+// - 같은 방의 메시지는 한 번에 하나의 가상 스레드만 처리하므로 순서가 보장된다
+// - 방별 대기열은 queue-capacity를 넘으면 전송을 거부하고 보낸 사람에게 알림을 보낸다
+// - 여러 건 전송(submitAll)은 방별로 묶어 한 작업으로 넣고 ChatService.sendMessages로 한 번에 처리
+@Component
+public class ChatSendPipeline {
+
+	private final ChatService chatService;
+	private final SimpMessagingTemplate messagingTemplate;
+	private final int queueCapacity;
+	private final int maxBatchSize;
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ConcurrentHashMap<String, RoomQueue> queues = new ConcurrentHashMap<>();
+	private final AtomicInteger queuedMessages = new AtomicInteger();
+
+	private final Counter rejectedMessages;
+	private final Counter failedMessages;
+	private final Timer queueWaitTimer;
+	private final Timer processTimer;
+	private final DistributionSummary batchSizeSummary;
+
+	public ChatSendPipeline(ChatService chatService,
+		SimpMessagingTemplate messagingTemplate,
+		MeterRegistry meterRegistry,
+		@Value("${chat.send.queue-capacity:1000}") int queueCapacity,
+		@Value("${chat.send.batch.max-size:1000}") int maxBatchSize) {
+		this.chatService = chatService;
+		this.messagingTemplate = messagingTemplate;
+		this.queueCapacity = queueCapacity;
+		this.maxBatchSize = maxBatchSize;
+
+		meterRegistry.gauge("chat.send.queue.depth", queuedMessages);
+		meterRegistry.gaugeMapSize("chat.send.queue.rooms", Tags.empty(), queues);
+		this.rejectedMessages = Counter.builder("chat.send.rejected")
+			.description("대기열이 가득 차 거부된 메시지 수")
+			.register(meterRegistry);
+		this.failedMessages = Counter.builder("chat.send.failures")
+			.description("처리 중 예외가 발생한 메시지 수")
+			.register(meterRegistry);
+		this.queueWaitTimer = Timer.builder("chat.send.queue.wait")
+			.description("대기열에 들어온 뒤 처리되기까지 걸린 시간")
+			.register(meterRegistry);
+		this.processTimer = Timer.builder("chat.send.process")
+			.description("대기열 작업 한 건(메시지 한 건 또는 방별 묶음) 처리 시간")
+			.register(meterRegistry);
+		this.batchSizeSummary = DistributionSummary.builder("chat.send.batch.size")
+			.description("방별로 묶어 한 번에 처리한 메시지 수")
+			.register(meterRegistry);
+	}
+
+	// 대기열에 넣었으면 true, 가득 차서 거부했으면 false
+	public boolean submit(ChatMessage chatMessage) {
+		String roomId = chatService.getRoomId(chatMessage.getSender(), chatMessage.getReceiver());
+		return enqueue(roomId, List.of(chatMessage));
+	}
+
+	// 여러 메시지를 방별로 묶어 대기열에 넣는다 (방 안의 순서는 요청 순서 유지)
+	// 방 단위로 전부 받거나 전부 거부하며, 받은 메시지 수를 반환
+	public int submitAll(List<ChatMessage> chatMessages) {
+		if (chatMessages.size() > maxBatchSize) {
+			throw new IllegalArgumentException("한 번에 보낼 수 있는 메시지는 최대 " + maxBatchSize + "건입니다.");
+		}
+		Map<String, List<ChatMessage>> byRoom = new LinkedHashMap<>();
+		for (ChatMessage chatMessage : chatMessages) {
+			String roomId = chatService.getRoomId(chatMessage.getSender(), chatMessage.getReceiver());
+			byRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(chatMessage);
+		}
+		int accepted = 0;
+		for (Map.Entry<String, List<ChatMessage>> room : byRoom.entrySet()) {
+			if (enqueue(room.getKey(), room.getValue())) {
+				accepted += room.getValue().size();
+			}
+		}
+		return accepted;
+	}
+
+	private boolean enqueue(String roomId, List<ChatMessage> chatMessages) {
+		PendingSend pending = new PendingSend(chatMessages, System.nanoTime());
+		AtomicBoolean accepted = new AtomicBoolean(false);
+
+		// 추가와 (drain 종료 시의) 제거가 같은 key의 compute 안에서 일어나므로 작업이 유실되지 않는다
+		RoomQueue queue = queues.compute(roomId, (id, existing) -> {
+			RoomQueue target = existing != null ? existing : new RoomQueue(id);
+			if (target.size.get() + chatMessages.size() <= queueCapacity) {
+				target.add(pending);
+				accepted.set(true);
+			}
+			return target;
+		});
+
+		if (!accepted.get()) {
+			rejectedMessages.increment(chatMessages.size());
+			notifyRejected(roomId, chatMessages.get(0));
+			return false;
+		}
+		queuedMessages.addAndGet(chatMessages.size());
+		if (queue.started.compareAndSet(false, true)) {
+			executor.execute(() -> drain(queue));
+		}
+		return true;
+	}
+
+	private void drain(RoomQueue queue) {
+		while (true) {
+			PendingSend pending;
+			while ((pending = queue.poll()) != null) {
+				queuedMessages.addAndGet(-pending.messages().size());
+				process(pending);
+			}
+			// 비어 있으면 제거하고 종료, 그 사이 새 메시지가 들어왔으면 계속 처리
+			RoomQueue current = queues.computeIfPresent(queue.roomId,
+				(id, existing) -> existing == queue && existing.size.get() == 0 ? null : existing);
+			if (current != queue) {
+				return;
+			}
+		}
+	}
+
+	private void process(PendingSend pending) {
+		queueWaitTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+		List<ChatMessage> chatMessages = pending.messages();
+		try {
+			if (chatMessages.size() == 1) {
+				processTimer.record(() -> chatService.sendMessage(chatMessages.get(0)));
+			} else {
+				batchSizeSummary.record(chatMessages.size());
+				processTimer.record(() -> chatService.sendMessages(chatMessages));
+			}
+		} catch (RuntimeException e) {
+			failedMessages.increment(chatMessages.size());
+			System.err.println("Failed to send chat message from " + chatMessages.get(0).getSender() + ": "
+				+ e.getMessage());
+		}
+	}
+
+	private void notifyRejected(String roomId, ChatMessage chatMessage) {
+		ChatNotification notification = new ChatNotification(roomId, chatMessage.getSender(),
+			"메시지가 많아 전송하지 못했습니다. 잠시 후 다시 시도해주세요.");
+		messagingTemplate.convertAndSend("/topic/notification/" + chatMessage.getSender(), notification);
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	private record PendingSend(List<ChatMessage> messages, long enqueuedAt) {
+	}
+
+	private static class RoomQueue {
+		private final String roomId;
+		private final Queue<PendingSend> messages = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicBoolean started = new AtomicBoolean(false);
+
+		RoomQueue(String roomId) {
+			this.roomId = roomId;
+		}
+
+		// size는 작업 수가 아니라 메시지 수
+		void add(PendingSend pending) {
+			messages.add(pending);
+			size.addAndGet(pending.messages().size());
+		}
+
+		PendingSend poll() {
+			PendingSend pending = messages.poll();
+			if (pending != null) {
+				size.addAndGet(-pending.messages().size());
+			}
+			return pending;
+		}
+	}
+}
@@ -2,23 +2,31 @@ package com.chatroom_test.chat.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.chatroom_test.chat.dto.ChatHistoryPage;
 import com.chatroom_test.chat.dto.ChatNotification;
 import com.chatroom_test.chat.dto.ChatRoomCreationResult;
-import com.chatroom_test.chat.dto.UnreadCountUpdate;
+import com.chatroom_test.chat.dto.ChatRoomResponse;
 import com.chatroom_test.chat.entity.ChatMessage;
 import com.chatroom_test.chat.entity.ChatRoom;
+import com.chatroom_test.chat.presence.PresenceRegistry;
 import com.chatroom_test.chat.repository.ChatMessageRepository;
 import com.chatroom_test.chat.repository.ChatRoomRepository;
+import com.chatroom_test.chat.wal.MessageWriteAheadLog;
 
 @Service
 public class ChatService {
@@ -29,66 +37,108 @@ public class ChatService {
 	@Autowired
 	private ChatRoomRepository chatRoomRepository;
 
+	@Autowired
+	private SimpMessagingTemplate messagingTemplate;
+
+	@Autowired
+	private MessageFlushService messageFlushService;
+
+	@Autowired
+	private UnreadCountService unreadCountService;
+
+	@Autowired
+	private ChatInboxService chatInboxService;
+
+	@Autowired
+	private ChatRoomCache chatRoomCache;
+
+	@Autowired
+	private MessageIdGenerator messageIdGenerator;
+
+	@Autowired
+	private ChatHistoryCache chatHistoryCache;
+
+	@Autowired
+	private MessageWriteAheadLog writeAheadLog;
+
+	@Autowired
+	private UnreadCountNotifier unreadCountNotifier;
+
+	@Autowired
+	private PresenceRegistry presenceRegistry;
+
 	@Autowired
 	private RedisTemplate<String, ChatMessage> redisTemplate;
 
 	@Autowired
-	private SimpMessagingTemplate messagingTemplate;
+	private MessageDedupService messageDedupService;
 
-	private static final String CHAT_MESSAGE_KEY_PREFIX = "chat:messages:";
+	private static final int MAX_HISTORY_PAGE_SIZE = 200;
+	private static final int MAX_INBOX_PAGE_SIZE = 200;
 
 	public ChatRoom getChatRoom(String sender, String receiver) {
 		String roomId = getRoomId(sender, receiver);
-		return chatRoomRepository.findByRoomId(roomId)
-			.orElseThrow(() -> new RuntimeException("채팅방을 찾을 수 없습니다."));
+		ChatRoom room = chatRoomCache.get(roomId);
+		if (room == null) {
+			throw new RuntimeException("채팅방을 찾을 수 없습니다.");
+		}
+		return room;
 	}
 
+	// 방의 최근 메시지 (Redis hot tail, 최대 chat.history-cache.max-messages 개)
+	// 그 이전 내역은 getMessagePage로 조회
 	public List<ChatMessage> getMessagesByRoomId(String roomId) {
-		// Redis에서 메시지 조회
-		List<ChatMessage> redisMessages = redisTemplate.opsForList().range(CHAT_MESSAGE_KEY_PREFIX + roomId, 0, -1);
-
-		// Redis에 메시지가 없으면 DB에서 조회 후 Redis에 저장
-		if (redisMessages == null || redisMessages.isEmpty()) {
-			List<ChatMessage> dbMessages = chatMessageRepository.findByChatRoomRoomIdOrderByIdAsc(roomId);
-			if (dbMessages != null && !dbMessages.isEmpty()) {
-				redisTemplate.opsForList().rightPushAll(CHAT_MESSAGE_KEY_PREFIX + roomId, dbMessages);
-			}
-			return dbMessages;
+		return chatHistoryCache.getTail(roomId);
+	}
+
+	// 채팅 내역 페이지 조회 (before가 없으면 가장 최근 페이지)
+	// 최근 페이지는 Redis hot tail에서 읽고, 그 외에는 id 기준 keyset 조회로 방 전체를 읽지 않는다
+	// hot tail의 nextBefore가 아직 플러시되지 않은 메시지일 수 있으므로 DB 페이지에 버퍼 메시지(id < before)를 합친다
+	public ChatHistoryPage getMessagePage(String roomId, Long before, int limit) {
+		int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+		if (before == null && pageSize <= chatHistoryCache.getMaxMessages()) {
+			return latestPageFromCache(roomId, pageSize);
 		}
+		PageRequest page = PageRequest.of(0, pageSize);
+
+		List<ChatMessage> persisted = before == null
+			? chatMessageRepository.findByChatRoomRoomIdOrderByIdDesc(roomId, page)
+			: chatMessageRepository.findByChatRoomRoomIdAndIdLessThanOrderByIdDesc(roomId, before, page);
 
-		if (redisMessages == null) {
-			redisMessages = new ArrayList<>();
+		// 플러시 직후 LTRIM 전이면 DB와 버퍼 양쪽에 있을 수 있으므로 id로 중복 제거
+		TreeMap<Long, ChatMessage> merged = new TreeMap<>();
+		persisted.forEach(message -> merged.put(message.getId(), message));
+		for (ChatMessage pending : messageFlushService.getPendingMessages(roomId)) {
+			if (pending.getId() != null && (before == null || pending.getId() < before)) {
+				merged.putIfAbsent(pending.getId(), pending);
+			}
 		}
 
-		return redisMessages;
+		List<ChatMessage> messages = new ArrayList<>(merged.values());
+		boolean hasMore = persisted.size() == pageSize || messages.size() > pageSize;
+		if (messages.size() > pageSize) {
+			messages = new ArrayList<>(messages.subList(messages.size() - pageSize, messages.size()));
+		}
+		Long nextBefore = messages.isEmpty() ? null : messages.get(0).getId();
+		return new ChatHistoryPage(messages, nextBefore, hasMore);
 	}
 
-	// 메시지를 Redis에 저장 (메시지 전송 시 한 번만 호출)
-	public void saveMessage(ChatMessage message) {
-		String key = CHAT_MESSAGE_KEY_PREFIX + message.getChatRoom().getRoomId();
-		redisTemplate.opsForList().rightPush(key, message);
+	private ChatHistoryPage latestPageFromCache(String roomId, int pageSize) {
+		List<ChatMessage> tail = chatHistoryCache.getTail(roomId);
+		List<ChatMessage> messages = new ArrayList<>(tail.subList(Math.max(0, tail.size() - pageSize), tail.size()));
+		Long nextBefore = messages.isEmpty() ? null : messages.get(0).getId();
+		// tail이 가득 차 있으면 그 이전 메시지가 DB에 더 있을 수 있다
+		boolean hasMore = nextBefore != null
+			&& (tail.size() > pageSize || tail.size() >= chatHistoryCache.getMaxMessages());
+		return new ChatHistoryPage(messages, nextBefore, hasMore);
 	}
 
-	// Redis에 저장된 메시지를 주기적으로 DB에 플러시 (중복 방지 위해 Redis key 삭제)
-	@Scheduled(fixedRate = 30000)
-	@Transactional
-	public void flushMessagesToDB() {
-		Set<String> keys = redisTemplate.keys(CHAT_MESSAGE_KEY_PREFIX + "*");
-		if (keys != null) {
-			for (String key : keys) {
-				List<ChatMessage> messages = redisTemplate.opsForList().range(key, 0, -1);
-				if (messages != null && !messages.isEmpty()) {
-					for (ChatMessage message : messages) {
-						if (!chatMessageRepository.existsByChatRoomRoomIdAndTimestamp(message.getChatRoom().getRoomId(),
-							message.getTimestamp())) {
-							chatMessageRepository.save(message);
-						}
-					}
-					redisTemplate.delete(key);
-					System.out.println("Flushed " + messages.size() + " messages from Redis to DB for key: " + key);
-				}
-			}
-		}
+	// 메시지를 로컬 WAL과 Redis에 저장 (메시지 전송 시 한 번만 호출)
+	// DB 저장은 MessageFlushService의 버퍼를 통해 주기적으로 처리되고, 조회 캐시는 이미 로드된 경우에만 이어 붙인다
+	public void saveMessage(ChatMessage message) {
+		writeAheadLog.append(message);
+		messageFlushService.enqueue(message);
+		chatHistoryCache.append(message);
 	}
 
 	// 두 사용자의 알파벳 순서를 기준으로 채팅방 아이디 생성
@@ -96,40 +146,28 @@ public class ChatService {
 		return (sender.compareTo(receiver) < 0) ? sender + ":" + receiver : receiver + ":" + sender;
 	}
 
+	// 채팅방 목록 조회: 마지막 활동 순으로 정렬된 inbox 프로젝션에서 페이지 단위로 조회
+	public List<ChatRoomResponse> getChatRoomList(String username, int page, int size) {
+		return chatInboxService.getInbox(username, Math.max(page, 0), Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE)));
+	}
+
 	// 채팅방에 가입된 사용자 목록 조회
 	public List<ChatRoom> getSubscribedChatRooms(String username) {
-		return chatRoomRepository.findByClientOrExpert(username, username);
+		return chatRoomRepository.findByMember(username);
 	}
 
 	// 채팅방 구독 및 생성 (신규 채팅방일 경우 true 반환)
 	public ChatRoomCreationResult subscribeChatRoom(String sender, String receiver) {
 		String roomId = getRoomId(sender, receiver);
-		return chatRoomRepository.findByRoomId(roomId)
-			.map(room -> new ChatRoomCreationResult(room, false))
-			.orElseGet(() -> {
-				ChatRoom newRoom = new ChatRoom(roomId, sender, receiver);
-				ChatRoom savedRoom = chatRoomRepository.save(newRoom);
-				return new ChatRoomCreationResult(savedRoom, true);
-			});
+		return chatRoomCache.getOrCreate(roomId, sender, receiver);
 	}
 
-	// unread count 계산: 채팅방의 마지막 읽은 시간 이후에 상대방이 보낸 메시지만 카운트
+	// unread count 조회: 채팅방의 마지막 읽은 시간 이후에 상대방이 보낸 메시지 수 (Redis 카운터에서 O(1) 조회)
 	public long getUnreadCount(String roomId, String username) {
-		ChatRoom room = chatRoomRepository.findByRoomId(roomId).orElse(null);
+		ChatRoom room = chatRoomCache.get(roomId);
 		if (room == null)
 			return 0;
-		LocalDateTime lastRead = null;
-		if (username.equals(room.getClient())) {
-			lastRead = room.getLastReadAtUser1();
-		} else if (username.equals(room.getExpert())) {
-			lastRead = room.getLastReadAtUser2();
-		}
-		List<ChatMessage> allMessages = getMessagesByRoomId(roomId);
-		final LocalDateTime finalLastRead = lastRead;
-		return allMessages.stream()
-			.filter(cm -> !cm.getSender().equals(username))
-			.filter(cm -> finalLastRead == null || cm.getTimestamp().isAfter(finalLastRead))
-			.count();
+		return unreadCountService.getUnreadCount(room, username);
 	}
 
 	// 채팅방 읽음 처리: 사용자가 채팅방에 들어갈 때 lastReadAt 갱신
@@ -142,7 +180,10 @@ public class ChatService {
 			} else if (username.equals(room.getExpert())) {
 				room.setLastReadAtUser2(now);
 			}
-			return chatRoomRepository.saveAndFlush(room);
+			ChatRoom savedRoom = chatRoomRepository.saveAndFlush(room);
+			chatRoomCache.invalidate(roomId);
+			unreadCountService.reset(roomId, username);
+			return savedRoom;
 		}).orElse(null);
 	}
 
@@ -155,25 +196,133 @@ public class ChatService {
 	}
 
 	// 메시지 전송: 채팅방 구독/생성, 메시지 저장, WebSocket 전송, unread count 업데이트, 신규 채팅방 알림 전송
+	// 같은 messageId로 재전송된 메시지는 아무것도 하지 않는다
 	public void sendMessage(ChatMessage chatMessage) {
+		String roomId = getRoomId(chatMessage.getSender(), chatMessage.getReceiver());
+		if (!messageDedupService.firstSeen(roomId, chatMessage)) {
+			return;
+		}
+		// 저장/broadcast 전에 실패하면 같은 messageId의 재전송을 다시 받는다
+		ChatRoomCreationResult roomResult = messageDedupService.releaseOnFailure(roomId, List.of(chatMessage),
+			() -> storeAndPublish(chatMessage));
+		ChatRoom chatRoom = roomResult.getChatRoom();
+
+		// 나와의 채팅방은 내가 보낸 메시지이므로 카운터가 바뀌지 않아 알릴 필요도 없다
+		// 접속 중인 세션이 없는 사용자에게는 카운터만 올리고 푸시는 생략 (다음 접속 시 목록 조회로 반영)
+		boolean receiverOnline = presenceRegistry.isOnline(chatMessage.getReceiver());
+		if (!chatMessage.getSender().equals(chatMessage.getReceiver())) {
+			long unreadCount = unreadCountService.increment(chatRoom, chatMessage.getReceiver());
+			if (receiverOnline) {
+				unreadCountNotifier.push(chatMessage.getReceiver(), chatRoom.getRoomId(), unreadCount);
+			}
+		}
+
+		if (roomResult.isNewlyCreated() && receiverOnline) {
+			String notificationContent = String.format("%s님이 채팅을 시작했습니다.", chatMessage.getSender());
+			ChatNotification notification = new ChatNotification(chatRoom.getRoomId(), chatMessage.getSender(),
+				notificationContent);
+			messagingTemplate.convertAndSend("/topic/notification/" + chatMessage.getReceiver(), notification);
+		}
+	}
+
+	private ChatRoomCreationResult storeAndPublish(ChatMessage chatMessage) {
 		ChatRoomCreationResult roomResult = subscribeChatRoom(chatMessage.getSender(), chatMessage.getReceiver());
 		ChatRoom chatRoom = roomResult.getChatRoom();
 
 		chatMessage.setChatRoom(chatRoom);
 		chatMessage.setTimestamp(LocalDateTime.now());
+		chatMessage.setId(messageIdGenerator.nextId());
+		if (chatMessage.getMessageId() == null || chatMessage.getMessageId().isBlank()) {
+			chatMessage.setMessageId(String.valueOf(chatMessage.getId()));
+		}
 
 		saveMessage(chatMessage);
+		chatInboxService.onMessage(chatRoom, chatMessage);
 		messagingTemplate.convertAndSend("/topic/chat/" + chatRoom.getRoomId(), chatMessage);
+		return roomResult;
+	}
 
-		long unreadCount = getUnreadCount(chatRoom.getRoomId(), chatMessage.getReceiver());
-		UnreadCountUpdate update = new UnreadCountUpdate(chatRoom.getRoomId(), unreadCount);
-		messagingTemplate.convertAndSend("/topic/unreadCount/" + chatMessage.getReceiver(), update);
+	// 같은 방 메시지 여러 건을 한 번에 전송 (봇, 가져오기 도구용)
+	// - 방 조회/생성 1회, WAL은 마지막 레코드까지 한 번의 fsync 대기
+	// - 버퍼 적재, hot tail, inbox를 한 번의 Redis pipeline으로, unread count 증가는 수신자별 결과를 읽도록 별도 pipeline으로 기록
+	// - /topic/chat/{roomId} 로 메시지 배열 한 프레임만 broadcast (클라이언트는 배열이면 펼쳐서 처리)
+	public void sendMessages(List<ChatMessage> chatMessages) {
+		String roomId = getRoomId(chatMessages.get(0).getSender(), chatMessages.get(0).getReceiver());
+		List<ChatMessage> firstSeen = messageDedupService.filterFirstSeen(roomId, chatMessages);
+		if (firstSeen.isEmpty()) {
+			return;
+		}
+		// 저장/broadcast 전에 실패하면 같은 messageId의 재전송을 다시 받는다
+		ChatRoomCreationResult roomResult = messageDedupService.releaseOnFailure(roomId, firstSeen,
+			() -> storeAndPublish(firstSeen));
+		ChatRoom chatRoom = roomResult.getChatRoom();
+		ChatMessage first = firstSeen.get(0);
 
-		if (roomResult.isNewlyCreated()) {
-			String notificationContent = String.format("%s님이 채팅을 시작했습니다.", chatMessage.getSender());
-			ChatNotification notification = new ChatNotification(chatRoom.getRoomId(), chatMessage.getSender(),
-				notificationContent);
-			messagingTemplate.convertAndSend("/topic/notification/" + chatMessage.getReceiver(), notification);
+		Map<String, Long> unreadIncrements = new LinkedHashMap<>();
+		for (ChatMessage chatMessage : firstSeen) {
+			if (!chatMessage.getSender().equals(chatMessage.getReceiver())) {
+				unreadIncrements.merge(chatMessage.getReceiver(), 1L, Long::sum);
+			}
+		}
+		List<String> receivers = new ArrayList<>(unreadIncrements.keySet());
+
+		// unread 증가는 따로 pipeline으로 보내 결과가 receivers와 같은 순서로 하나씩 대응되게 한다
+		// (앞 pipeline은 명령마다 결과 포함 여부가 달라 위치로 읽을 수 없다)
+		List<Object> unreadResults = redisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			for (String receiver : receivers) {
+				unreadCountService.incrementBy(connection, roomId, receiver, unreadIncrements.get(receiver));
+			}
+			return null;
+		});
+		for (int i = 0; i < receivers.size(); i++) {
+			String receiver = receivers.get(i);
+			long unreadCount = unreadCountService.resolve((Long)unreadResults.get(i), chatRoom, receiver);
+			if (presenceRegistry.isOnline(receiver)) {
+				unreadCountNotifier.push(receiver, roomId, unreadCount);
+			}
 		}
+
+		if (roomResult.isNewlyCreated() && presenceRegistry.isOnline(first.getReceiver())) {
+			String notificationContent = String.format("%s님이 채팅을 시작했습니다.", first.getSender());
+			ChatNotification notification = new ChatNotification(roomId, first.getSender(), notificationContent);
+			messagingTemplate.convertAndSend("/topic/notification/" + first.getReceiver(), notification);
+		}
+	}
+
+	private ChatRoomCreationResult storeAndPublish(List<ChatMessage> chatMessages) {
+		ChatMessage first = chatMessages.get(0);
+		ChatRoomCreationResult roomResult = subscribeChatRoom(first.getSender(), first.getReceiver());
+		ChatRoom chatRoom = roomResult.getChatRoom();
+		String roomId = chatRoom.getRoomId();
+
+		LocalDateTime now = LocalDateTime.now();
+		byte[][] values = new byte[chatMessages.size()][];
+		for (int i = 0; i < chatMessages.size(); i++) {
+			ChatMessage chatMessage = chatMessages.get(i);
+			chatMessage.setChatRoom(chatRoom);
+			// 같은 묶음 안에서도 보낸 순서대로 정렬되도록 1µs씩 증가 (DB timestamp 정밀도가 µs)
+			chatMessage.setTimestamp(now.plusNanos(i * 1_000L));
+			chatMessage.setId(messageIdGenerator.nextId());
+			if (chatMessage.getMessageId() == null || chatMessage.getMessageId().isBlank()) {
+				chatMessage.setMessageId(String.valueOf(chatMessage.getId()));
+			}
+			values[i] = valueSerializer().serialize(chatMessage);
+		}
+
+		writeAheadLog.appendAll(chatMessages);
+		ChatMessage last = chatMessages.get(chatMessages.size() - 1);
+		redisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			messageFlushService.enqueue(connection, roomId, values);
+			chatHistoryCache.append(connection, roomId, values);
+			chatInboxService.onMessage(new DefaultStringRedisConnection(connection), chatRoom, last);
+			return null;
+		});
+		messagingTemplate.convertAndSend("/topic/chat/" + roomId, chatMessages);
+		return roomResult;
+	}
+
+	@SuppressWarnings("unchecked")
+	private RedisSerializer<ChatMessage> valueSerializer() {
+		return (RedisSerializer<ChatMessage>)redisTemplate.getValueSerializer();
 	}
 }
@@ -0,0 +1,112 @@
+package com.chatroom_test.chat.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 클라이언트가 messageId를 정해 재전송한 메시지를 전송 시점에 걸러낸다 (dedup:{roomId}:{sender}:{messageId} SET NX, 짧은 TTL)
+// 브로드캐스트, unread count 증가가 두 번 일어나지 않도록 하기 위함이며, TTL이 지난 뒤의 재전송은 플러시의 insert-if-absent가 막는다
+// messageId가 없는 메시지는 서버가 id를 발급하므로 검사하지 않는다
+// 선점 후 저장/전송이 실패하면 releaseOnFailure가 key를 지워 재전송을 다시 받는다
+@Service
+public class MessageDedupService {
+
+	private static final String DEDUP_KEY_PREFIX = "dedup:";
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final Duration ttl;
+	private final Counter duplicates;
+
+	public MessageDedupService(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+		@Value("${chat.send.dedup-ttl:10m}") Duration ttl) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.ttl = ttl;
+		this.duplicates = Counter.builder("chat.send.duplicates")
+			.description("같은 messageId로 다시 보내져 건너뛴 메시지 수")
+			.register(meterRegistry);
+	}
+
+	// 처음 보는 메시지면 true
+	public boolean firstSeen(String roomId, ChatMessage chatMessage) {
+		return filterFirstSeen(roomId, List.of(chatMessage)).size() == 1;
+	}
+
+	// 처음 보는 메시지만 순서대로 반환 (검사할 messageId가 있으면 SET NX를 한 번의 pipeline으로)
+	public List<ChatMessage> filterFirstSeen(String roomId, List<ChatMessage> chatMessages) {
+		List<String> keys = chatMessages.stream().filter(MessageDedupService::hasClientId)
+			.map(chatMessage -> key(roomId, chatMessage)).toList();
+		if (keys.isEmpty()) {
+			return chatMessages;
+		}
+		List<Boolean> claimed = claim(keys);
+
+		List<ChatMessage> firstSeen = new ArrayList<>(chatMessages.size());
+		int next = 0;
+		for (ChatMessage chatMessage : chatMessages) {
+			if (!hasClientId(chatMessage) || claimed.get(next++)) {
+				firstSeen.add(chatMessage);
+			} else {
+				duplicates.increment();
+			}
+		}
+		return firstSeen;
+	}
+
+	// firstSeen/filterFirstSeen으로 선점한 메시지를 저장, 전송하는 동안 실패하면 선점을 풀고 예외를 그대로 던진다
+	// (풀지 않으면 클라이언트가 같은 messageId로 재전송해도 TTL 동안 중복으로 버려져 메시지가 사라진다)
+	public <T> T releaseOnFailure(String roomId, List<ChatMessage> claimedMessages, Supplier<T> send) {
+		try {
+			return send.get();
+		} catch (RuntimeException e) {
+			List<String> keys = claimedMessages.stream().filter(MessageDedupService::hasClientId)
+				.map(chatMessage -> key(roomId, chatMessage)).toList();
+			if (!keys.isEmpty()) {
+				try {
+					release(keys);
+				} catch (RuntimeException releaseFailure) {
+					e.addSuppressed(releaseFailure);
+				}
+			}
+			throw e;
+		}
+	}
+
+	// key마다 SET NX 결과 (처음이면 true)
+	List<Boolean> claim(List<String> keys) {
+		Expiration expiration = Expiration.from(ttl);
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>)connection -> {
+			for (String key : keys) {
+				connection.stringCommands().set(RedisSerializer.string().serialize(key),
+					RedisSerializer.string().serialize("1"), expiration, SetOption.ifAbsent());
+			}
+			return null;
+		});
+		return results.stream().map(Boolean.TRUE::equals).toList();
+	}
+
+	void release(List<String> keys) {
+		stringRedisTemplate.delete(keys);
+	}
+
+	private static boolean hasClientId(ChatMessage chatMessage) {
+		return chatMessage.getMessageId() != null && !chatMessage.getMessageId().isBlank();
+	}
+
+	private static String key(String roomId, ChatMessage chatMessage) {
+		return DEDUP_KEY_PREFIX + roomId + ":" + chatMessage.getSender() + ":" + chatMessage.getMessageId();
+	}
+}
@@ -0,0 +1,296 @@
+package com.chatroom_test.chat.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.chatroom_test.chat.config.ChatNode;
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.repository.ChatMessageBatchRepository;
+import com.chatroom_test.chat.wal.MessageWriteAheadLog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Redis 버퍼에 쌓인 메시지를 DB로 내리는 write-behind 파이프라인
+// - 메시지가 쌓인 방은 dirty set에 기록해 두고 해당 방만 플러시 (KEYS 전체 스캔 제거)
+// - 방별 버퍼를 batch 단위로 앞에서부터 읽어 JDBC batch insert
+// - DB 커밋이 끝난 개수만큼만 LTRIM (플러시 중 새로 들어온 메시지는 보존)
+// - insert는 message_id 기준 insert-if-absent 이므로 커밋 후 LTRIM 전에 중단되어 다시 플러시해도 중복되지 않는다
+// - Redis가 버퍼를 잃어도 되도록 메시지는 먼저 로컬 WAL에 기록되고, 기동 시 남은 WAL은 DB로 바로 재적재
+// - 여러 노드가 같은 방을 동시에 플러시하지 않도록 방별 lease(SET NX PX, 값은 node id)를 잡고,
+//   LTRIM은 lease를 가진 노드만 하도록 스크립트 안에서 다시 확인 (lease를 잃은 노드의 insert는 중복으로 건너뛰어짐)
+// - WAL은 플러시 주기마다 checkpoint 하고, 모든 방을 이 노드가 끝까지 커밋한 주기가 한 번 더 지난 뒤 이전 segment를 삭제
+//   (다른 노드가 lease를 가진 방이 있으면 그 노드의 커밋을 확인할 수 없으므로 삭제하지 않는다)
+//   (checkpoint 직전에 WAL에 쓰였지만 아직 Redis에 들어가지 않은 메시지도 다음 주기에 플러시된 뒤 지워지도록)
+@Service
+public class MessageFlushService {
+
+	static final String PENDING_KEY_PREFIX = "chat:pending:";
+	static final String DIRTY_ROOMS_KEY = "chat:flush:dirty";
+	static final String LEASE_KEY_PREFIX = "chat:flush:lease:";
+
+	// 버퍼 길이를 반환하고, 비었으면 dirty set에서 제거
+	private static final RedisScript<Long> REMAINING_SCRIPT = new DefaultRedisScript<>(
+		"local len = redis.call('LLEN', KEYS[1]) "
+			+ "if len == 0 then redis.call('SREM', KEYS[2], ARGV[1]) end "
+			+ "return len",
+		Long.class);
+
+	// lease를 가진 경우에만 커밋된 개수만큼 잘라낸 뒤 lease를 연장 (lease를 잃었으면 -1)
+	private static final RedisScript<Long> ADVANCE_SCRIPT = new DefaultRedisScript<>(
+		"if redis.call('GET', KEYS[3]) ~= ARGV[2] then return -1 end "
+			+ "redis.call('LTRIM', KEYS[1], tonumber(ARGV[3]), -1) "
+			+ "redis.call('PEXPIRE', KEYS[3], ARGV[4]) "
+			+ "local len = redis.call('LLEN', KEYS[1]) "
+			+ "if len == 0 then redis.call('SREM', KEYS[2], ARGV[1]) end "
+			+ "return len",
+		Long.class);
+
+	// 자기 lease일 때만 해제
+	private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+		"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+		Long.class);
+
+	private final RedisTemplate<String, ChatMessage> redisTemplate;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ChatMessageBatchRepository batchRepository;
+	private final MessageIdGenerator messageIdGenerator;
+	private final MessageWriteAheadLog writeAheadLog;
+	private final ChatRoomCache chatRoomCache;
+	private final ChatNode chatNode;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final Duration leaseTimeout;
+	private long truncatableCheckpoint;
+
+	private final AtomicLong dirtyRooms = new AtomicLong();
+	private final Counter flushedMessages;
+	private final Counter failedBatches;
+	private final Counter duplicateMessages;
+	private final Counter leaseSkips;
+	private final DistributionSummary batchSizeSummary;
+	private final Timer flushLag;
+	private final Timer batchWriteTimer;
+
+	public MessageFlushService(RedisTemplate<String, ChatMessage> redisTemplate,
+		StringRedisTemplate stringRedisTemplate,
+		ChatMessageBatchRepository batchRepository,
+		MessageIdGenerator messageIdGenerator,
+		MessageWriteAheadLog writeAheadLog,
+		ChatRoomCache chatRoomCache,
+		ChatNode chatNode,
+		PlatformTransactionManager transactionManager,
+		MeterRegistry meterRegistry,
+		@Value("${chat.flush.batch-size:500}") int batchSize,
+		@Value("${chat.flush.lease-timeout:60s}") Duration leaseTimeout) {
+		this.redisTemplate = redisTemplate;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.batchRepository = batchRepository;
+		this.messageIdGenerator = messageIdGenerator;
+		this.writeAheadLog = writeAheadLog;
+		this.chatRoomCache = chatRoomCache;
+		this.chatNode = chatNode;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.leaseTimeout = leaseTimeout;
+
+		meterRegistry.gauge("chat.flush.dirty.rooms", dirtyRooms);
+		this.flushedMessages = Counter.builder("chat.flush.messages")
+			.description("DB로 플러시된 메시지 수")
+			.register(meterRegistry);
+		this.failedBatches = Counter.builder("chat.flush.failures")
+			.description("DB 저장에 실패한 batch 수")
+			.register(meterRegistry);
+		this.duplicateMessages = Counter.builder("chat.flush.duplicates")
+			.description("이미 저장된 message_id라 건너뛴 메시지 수")
+			.register(meterRegistry);
+		this.leaseSkips = Counter.builder("chat.flush.lease.skipped")
+			.description("다른 노드가 플러시 중이거나 lease를 잃어 건너뛴 방 수")
+			.register(meterRegistry);
+		this.batchSizeSummary = DistributionSummary.builder("chat.flush.batch.size")
+			.description("batch 당 insert 된 메시지 수")
+			.register(meterRegistry);
+		this.flushLag = Timer.builder("chat.flush.lag")
+			.description("메시지 수신부터 DB 커밋까지 걸린 시간 (batch 내 가장 오래된 메시지 기준)")
+			.register(meterRegistry);
+		this.batchWriteTimer = Timer.builder("chat.flush.batch.duration")
+			.description("batch insert 트랜잭션 소요 시간")
+			.register(meterRegistry);
+	}
+
+	// 메시지를 방별 버퍼에 적재하고 dirty set에 방을 등록
+	public void enqueue(ChatMessage message) {
+		String roomId = message.getChatRoom().getRoomId();
+		redisTemplate.opsForList().rightPush(PENDING_KEY_PREFIX + roomId, message);
+		stringRedisTemplate.opsForSet().add(DIRTY_ROOMS_KEY, roomId);
+	}
+
+	// 같은 방 메시지 여러 건을 호출자의 파이프라인 안에서 적재 (values는 redisTemplate 값 직렬화 결과)
+	public void enqueue(RedisConnection connection, String roomId, byte[][] values) {
+		byte[] room = RedisSerializer.string().serialize(roomId);
+		connection.listCommands().rPush(RedisSerializer.string().serialize(PENDING_KEY_PREFIX + roomId), values);
+		connection.setCommands().sAdd(RedisSerializer.string().serialize(DIRTY_ROOMS_KEY), room);
+	}
+
+	// 아직 버퍼에 남은 메시지 (커밋 후 LTRIM 전이면 DB에 이미 있는 메시지도 포함될 수 있다)
+	public List<ChatMessage> getPendingMessages(String roomId) {
+		List<ChatMessage> pending = redisTemplate.opsForList().range(PENDING_KEY_PREFIX + roomId, 0, -1);
+		return pending != null ? pending : Collections.emptyList();
+	}
+
+	// 버퍼의 가장 최근 메시지 (없으면 null)
+	public ChatMessage getLatestPendingMessage(String roomId) {
+		return redisTemplate.opsForList().index(PENDING_KEY_PREFIX + roomId, -1);
+	}
+
+	@Scheduled(fixedDelayString = "${chat.flush.interval-ms:30000}")
+	public void flush() {
+		long checkpoint = writeAheadLog.checkpoint();
+		Set<String> rooms = stringRedisTemplate.opsForSet().members(DIRTY_ROOMS_KEY);
+		if (rooms == null) {
+			return;
+		}
+		dirtyRooms.set(rooms.size());
+		boolean allFlushed = true;
+		for (String roomId : rooms) {
+			try {
+				// 다른 노드가 lease를 가져 건너뛰었거나 중간에 lease를 잃은 방은 아직 커밋이 확인되지 않았다
+				if (!flushRoom(roomId)) {
+					allFlushed = false;
+				}
+			} catch (RuntimeException e) {
+				// 실패한 방은 dirty 상태로 남겨 다음 주기에 재시도
+				allFlushed = false;
+				failedBatches.increment();
+				System.err.println("Failed to flush messages for room: " + roomId + " - " + e.getMessage());
+			}
+		}
+		if (allFlushed) {
+			writeAheadLog.truncateBefore(truncatableCheckpoint);
+			truncatableCheckpoint = checkpoint;
+		}
+	}
+
+	// 이전 실행의 WAL에 남은 메시지를 DB에 저장 (이미 저장된 message_id는 건너뜀)
+	@EventListener(ApplicationReadyEvent.class)
+	public void replayWriteAheadLog() {
+		long replayed = writeAheadLog.replay(messages -> {
+			for (ChatMessage message : messages) {
+				String roomId = message.getChatRoom().getRoomId();
+				chatRoomCache.getOrCreate(roomId, message.getSender(), message.getReceiver());
+			}
+			for (int from = 0; from < messages.size(); from += batchSize) {
+				List<ChatMessage> batch = messages.subList(from, Math.min(from + batchSize, messages.size()));
+				assignMissingIds(batch);
+				Integer inserted = batchWriteTimer.record(() ->
+					transactionTemplate.execute(status -> batchRepository.insertAll(batch)));
+				recordBatch(batch, inserted != null ? inserted : 0);
+			}
+		});
+		if (replayed > 0) {
+			System.out.println("Replayed " + replayed + " messages from the write-ahead log");
+		}
+	}
+
+	// 방의 버퍼를 끝까지 커밋했으면 true (lease를 얻지 못했거나 잃었으면 false)
+	boolean flushRoom(String roomId) {
+		String leaseKey = LEASE_KEY_PREFIX + roomId;
+		if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+			.setIfAbsent(leaseKey, chatNode.getId(), leaseTimeout))) {
+			leaseSkips.increment();
+			return false;
+		}
+		try {
+			return flushLeasedRoom(roomId);
+		} finally {
+			stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), chatNode.getId());
+		}
+	}
+
+	private boolean flushLeasedRoom(String roomId) {
+		String pendingKey = PENDING_KEY_PREFIX + roomId;
+		long total = 0;
+
+		long remaining = remaining(roomId);
+		while (remaining > 0) {
+			List<ChatMessage> batch = redisTemplate.opsForList().range(pendingKey, 0, batchSize - 1);
+			if (batch == null || batch.isEmpty()) {
+				break;
+			}
+			assignMissingIds(batch);
+
+			Integer inserted = batchWriteTimer.record(() ->
+				transactionTemplate.execute(status -> batchRepository.insertAll(batch)));
+			// 커밋이 끝난 개수만큼 잘라낸다 (그 사이 lease가 만료되어 다른 노드가 가져갔다면 건드리지 않는다)
+			remaining = advance(roomId, batch.size());
+			recordBatch(batch, inserted != null ? inserted : 0);
+			total += batch.size();
+			if (remaining < 0) {
+				leaseSkips.increment();
+				System.err.println("Lost flush lease for room: " + roomId + ", leaving buffer to the new owner");
+				return false;
+			}
+		}
+
+		if (total > 0) {
+			System.out.println("Flushed " + total + " messages from Redis to DB for room: " + roomId
+				+ " (remaining " + remaining + ")");
+		}
+		return true;
+	}
+
+	private long remaining(String roomId) {
+		Long remaining = stringRedisTemplate.execute(REMAINING_SCRIPT,
+			List.of(PENDING_KEY_PREFIX + roomId, DIRTY_ROOMS_KEY), roomId);
+		return remaining != null ? remaining : 0;
+	}
+
+	private long advance(String roomId, int committed) {
+		Long remaining = stringRedisTemplate.execute(ADVANCE_SCRIPT,
+			List.of(PENDING_KEY_PREFIX + roomId, DIRTY_ROOMS_KEY, LEASE_KEY_PREFIX + roomId),
+			roomId, chatNode.getId(), String.valueOf(committed), String.valueOf(leaseTimeout.toMillis()));
+		return remaining != null ? remaining : 0;
+	}
+
+	// id 발급기 도입 전에 버퍼에 들어간 메시지는 플러시 시점에 id를 부여
+	private void assignMissingIds(List<ChatMessage> batch) {
+		for (ChatMessage message : batch) {
+			if (message.getId() == null) {
+				message.setId(messageIdGenerator.nextId());
+			}
+			if (message.getMessageId() == null) {
+				message.setMessageId(String.valueOf(message.getId()));
+			}
+		}
+	}
+
+	private void recordBatch(List<ChatMessage> batch, int inserted) {
+		flushedMessages.increment(inserted);
+		duplicateMessages.increment(batch.size() - inserted);
+		batchSizeSummary.record(batch.size());
+		LocalDateTime oldest = batch.get(0).getTimestamp();
+		if (oldest != null) {
+			flushLag.record(Duration.between(oldest, LocalDateTime.now()));
+		}
+	}
+}
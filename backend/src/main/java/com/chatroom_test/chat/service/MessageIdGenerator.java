@@ -0,0 +1,59 @@
+package com.chatroom_test.chat.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.chatroom_test.chat.config.ChatNode;
+
+// Snowflake 방식의 64비트 메시지 id 발급기 (DB insert 없이 sendMessage 시점에 id 부여)
+// [sign(1)=0][epoch 이후 millis(41)][worker id(10)][sequence(12)]
+// - (millis, sequence) 상태를 AtomicLong 하나에 담아 CAS로 갱신 (lock 없음)
+// - 같은 millis에 4096개를 넘기거나 시계가 뒤로 가면 다음 millis를 미리 빌려 쓰므로 노드 안에서는 항상 증가한다
+@Component
+public class MessageIdGenerator {
+
+	// 2025-01-01T00:00:00Z
+	static final long EPOCH_MILLIS = 1735689600000L;
+
+	private static final int SEQUENCE_BITS = 12;
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + ChatNode.WORKER_ID_BITS;
+
+	private final long workerBits;
+	private final LongSupplier clock;
+	// (epoch 이후 millis << SEQUENCE_BITS) | sequence
+	private final AtomicLong state = new AtomicLong();
+
+	@Autowired
+	public MessageIdGenerator(ChatNode chatNode) {
+		this(chatNode.getWorkerId(), System::currentTimeMillis);
+	}
+
+	MessageIdGenerator(int workerId, LongSupplier clock) {
+		if (workerId < 0 || workerId > ChatNode.MAX_WORKER_ID) {
+			throw new IllegalArgumentException("worker id 범위 초과: " + workerId);
+		}
+		this.workerBits = (long)workerId << SEQUENCE_BITS;
+		this.clock = clock;
+	}
+
+	public long nextId() {
+		long next = state.updateAndGet(current -> {
+			long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+			return now > current ? now : current + 1;
+		});
+		long millis = next >>> SEQUENCE_BITS;
+		return (millis << TIMESTAMP_SHIFT) | workerBits | (next & SEQUENCE_MASK);
+	}
+
+	public static long timestampOf(long id) {
+		return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+	}
+
+	public static int workerIdOf(long id) {
+		return (int)((id >>> SEQUENCE_BITS) & ChatNode.MAX_WORKER_ID);
+	}
+}
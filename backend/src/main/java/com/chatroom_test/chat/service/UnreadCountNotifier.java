@@ -0,0 +1,109 @@
+package com.chatroom_test.chat.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import com.chatroom_test.chat.dto.UnreadCountBatch;
+import com.chatroom_test.chat.dto.UnreadCountUpdate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// unread count 변경을 사용자별로 coalesce-window 동안 모았다가 한 프레임으로 전송
+// - 같은 방의 값은 마지막 값만 남기고, 여러 방의 변경은 UnreadCountBatch 하나로 묶는다
+// - 사용자별 첫 변경 시점에 전송을 예약하므로 한 사용자에게는 window 당 최대 한 프레임만 나간다
+@Component
+public class UnreadCountNotifier {
+
+	private static final String DESTINATION_PREFIX = "/topic/unreadCount/";
+
+	private final SimpMessagingTemplate messagingTemplate;
+	private final long windowMillis;
+	private final ConcurrentHashMap<String, PendingUpdates> pending = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+		Thread.ofPlatform().name("unread-count-notifier").daemon().factory());
+
+	private final Counter requestedUpdates;
+	private final Counter sentFrames;
+	private final Counter savedFrames;
+
+	public UnreadCountNotifier(SimpMessagingTemplate messagingTemplate,
+		MeterRegistry meterRegistry,
+		@Value("${chat.unread.coalesce-window-ms:200}") long windowMillis) {
+		this.messagingTemplate = messagingTemplate;
+		this.windowMillis = windowMillis;
+
+		this.requestedUpdates = Counter.builder("chat.unread.updates")
+			.description("요청된 unread count 변경 수")
+			.register(meterRegistry);
+		this.sentFrames = Counter.builder("chat.unread.frames")
+			.description("실제로 전송된 unread count 프레임 수")
+			.register(meterRegistry);
+		this.savedFrames = Counter.builder("chat.unread.frames.saved")
+			.description("묶어서 보내 생략된 프레임 수")
+			.register(meterRegistry);
+	}
+
+	public void push(String username, String roomId, long unreadCount) {
+		requestedUpdates.increment();
+		if (windowMillis <= 0) {
+			send(username, List.of(new UnreadCountUpdate(roomId, unreadCount)), 1);
+			return;
+		}
+
+		PendingUpdates updates = new PendingUpdates();
+		PendingUpdates current = pending.compute(username, (user, existing) -> {
+			PendingUpdates target = existing != null ? existing : updates;
+			target.counts.put(roomId, unreadCount);
+			target.requests++;
+			return target;
+		});
+		// 새로 만든 묶음일 때만 전송 예약
+		if (current == updates) {
+			scheduler.schedule(() -> flush(username), windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void flush(String username) {
+		PendingUpdates updates = pending.remove(username);
+		if (updates == null) {
+			return;
+		}
+		List<UnreadCountUpdate> frame = new ArrayList<>(updates.counts.size());
+		updates.counts.forEach((roomId, count) -> frame.add(new UnreadCountUpdate(roomId, count)));
+		try {
+			send(username, frame, updates.requests);
+		} catch (RuntimeException e) {
+			System.err.println("Failed to send unread count to " + username + ": " + e.getMessage());
+		}
+	}
+
+	private void send(String username, List<UnreadCountUpdate> frame, int requests) {
+		messagingTemplate.convertAndSend(DESTINATION_PREFIX + username, new UnreadCountBatch(frame));
+		sentFrames.increment();
+		savedFrames.increment(requests - 1);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		pending.keySet().forEach(this::flush);
+	}
+
+	// compute 안에서만 수정되고, flush는 map에서 꺼낸 뒤 읽으므로 별도 동기화가 필요 없다
+	private static class PendingUpdates {
+		private final Map<String, Long> counts = new LinkedHashMap<>();
+		private int requests;
+	}
+}
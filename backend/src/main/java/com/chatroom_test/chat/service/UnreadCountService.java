@@ -0,0 +1,125 @@
+package com.chatroom_test.chat.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.chatroom_test.chat.repository.ChatMessageRepository;
+
+// 사용자별 안 읽은 메시지 수 카운터 (Redis hash unread:{user} -> roomId -> count)
+// 메시지 전송 시 HINCRBY, 읽음 처리 시 0으로 초기화하고, 값이 없는 방은 DB + Redis 버퍼로 다시 계산
+@Service
+public class UnreadCountService {
+
+	private static final String UNREAD_KEY_PREFIX = "unread:";
+
+	// 이미 계산된 방만 ARGV[2]만큼 증가시키고, 값이 없으면 -1을 반환해 재계산하도록 함
+	private static final RedisScript<Long> INCREMENT_IF_PRESENT_SCRIPT = new DefaultRedisScript<>(
+		"if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then "
+			+ "  return redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2]) "
+			+ "end "
+			+ "return -1",
+		Long.class);
+	private static final byte[] SCRIPT_BYTES = bytes(INCREMENT_IF_PRESENT_SCRIPT.getScriptAsString());
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ChatMessageRepository chatMessageRepository;
+	private final MessageFlushService messageFlushService;
+
+	public UnreadCountService(StringRedisTemplate stringRedisTemplate,
+		ChatMessageRepository chatMessageRepository,
+		MessageFlushService messageFlushService) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.chatMessageRepository = chatMessageRepository;
+		this.messageFlushService = messageFlushService;
+	}
+
+	// 새 메시지 수신 시 호출 (메시지가 버퍼에 적재된 뒤 호출되어야 재계산 값에 포함됨)
+	public long increment(ChatRoom room, String username) {
+		Long count = stringRedisTemplate.execute(INCREMENT_IF_PRESENT_SCRIPT,
+			List.of(UNREAD_KEY_PREFIX + username), room.getRoomId(), "1");
+		return resolve(count, room, username);
+	}
+
+	// 파이프라인 안에서 여러 건을 한 번에 증가 (결과는 파이프라인 종료 후 resolve로 확정)
+	public void incrementBy(RedisConnection connection, String roomId, String username, long amount) {
+		connection.scriptingCommands().eval(SCRIPT_BYTES, ReturnType.INTEGER, 1,
+			bytes(UNREAD_KEY_PREFIX + username), bytes(roomId), bytes(String.valueOf(amount)));
+	}
+
+	// 증가 스크립트 결과가 -1(카운터 없음)이면 재계산
+	public long resolve(Long count, ChatRoom room, String username) {
+		if (count != null && count >= 0) {
+			return count;
+		}
+		return rebuild(room, username);
+	}
+
+	public long getUnreadCount(ChatRoom room, String username) {
+		Object count = stringRedisTemplate.opsForHash().get(UNREAD_KEY_PREFIX + username, room.getRoomId());
+		if (count != null) {
+			return Long.parseLong(count.toString());
+		}
+		return rebuild(room, username);
+	}
+
+	// 사용자의 방별 카운터를 한 번에 조회 (계산된 적 없는 방은 포함되지 않음)
+	public Map<String, Long> getUnreadCounts(String username) {
+		Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(UNREAD_KEY_PREFIX + username);
+		Map<String, Long> counts = new HashMap<>();
+		entries.forEach((roomId, count) -> counts.put(roomId.toString(), Long.parseLong(count.toString())));
+		return counts;
+	}
+
+	public void reset(String roomId, String username) {
+		stringRedisTemplate.opsForHash().put(UNREAD_KEY_PREFIX + username, roomId, "0");
+	}
+
+	// 콜드 스타트 등으로 값이 없을 때: 마지막 읽은 시간 이후 상대방 메시지를 DB와 미플러시 버퍼에서 센다
+	long rebuild(ChatRoom room, String username) {
+		LocalDateTime lastRead = lastReadOf(room, username);
+		long count = lastRead == null
+			? chatMessageRepository.countByChatRoomRoomIdAndSenderNot(room.getRoomId(), username)
+			: chatMessageRepository.countUnreadMessages(room.getRoomId(), lastRead, username);
+		for (ChatMessage message : messageFlushService.getPendingMessages(room.getRoomId())) {
+			if (!username.equals(message.getSender())
+				&& (lastRead == null || message.getTimestamp().isAfter(lastRead))) {
+				count++;
+			}
+		}
+		// 동시에 재계산된 경우 먼저 저장된 값을 사용
+		String key = UNREAD_KEY_PREFIX + username;
+		if (!Boolean.TRUE.equals(stringRedisTemplate.opsForHash().putIfAbsent(key, room.getRoomId(),
+			String.valueOf(count)))) {
+			Object current = stringRedisTemplate.opsForHash().get(key, room.getRoomId());
+			if (current != null) {
+				return Long.parseLong(current.toString());
+			}
+		}
+		return count;
+	}
+
+	private LocalDateTime lastReadOf(ChatRoom room, String username) {
+		if (username.equals(room.getClient())) {
+			return room.getLastReadAtUser1();
+		} else if (username.equals(room.getExpert())) {
+			return room.getLastReadAtUser2();
+		}
+		return null;
+	}
+
+	private static byte[] bytes(String value) {
+		return RedisSerializer.string().serialize(value);
+	}
+}
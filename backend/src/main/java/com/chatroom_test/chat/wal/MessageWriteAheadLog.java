@@ -0,0 +1,374 @@
+package com.chatroom_test.chat.wal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.redis.ChatMessageRedisSerializer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Redis 버퍼에 넣기 전에 메시지를 로컬 디스크에 먼저 남기는 write-ahead log
+// - 고정 크기 segment 파일을 memory-map 해서 append, 레코드는 [length(4)][crc32c(4)][ChatMessage 바이너리]
+// - append는 fsync가 끝나야 반환 (group commit: sync 스레드가 쌓인 레코드를 한 번의 force로 내림)
+// - checkpoint()로 새 segment로 넘어간 뒤, DB 커밋이 확인된 이전 segment는 truncateBefore()로 삭제
+// - 기동 시 남아 있는 segment는 replay()로 다시 읽는다 (crc가 맞지 않는 레코드에서 해당 segment 읽기 종료)
+@Component
+public class MessageWriteAheadLog {
+
+	private static final String SEGMENT_PREFIX = "wal-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final int HEADER_BYTES = 8;
+
+	private final boolean enabled;
+	private final Path directory;
+	private final int segmentBytes;
+	private final ChatMessageRedisSerializer serializer = new ChatMessageRedisSerializer();
+
+	// append/roll/sync 상태는 모두 lock으로 보호 (synchronized는 가상 스레드를 pin 하므로 사용하지 않음)
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition appended = lock.newCondition();
+	private final Condition durable = lock.newCondition();
+	private Segment active;
+	private long appendedRecords;
+	private long durableRecords;
+	private volatile boolean running = true;
+	private final Thread syncThread;
+
+	private final Timer appendTimer;
+	private final Timer fsyncTimer;
+	private final DistributionSummary groupSize;
+
+	public MessageWriteAheadLog(@Value("${chat.wal.enabled:true}") boolean enabled,
+		@Value("${chat.wal.dir:data/wal}") Path directory,
+		@Value("${chat.wal.segment-size:64MB}") DataSize segmentSize,
+		MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.directory = directory;
+		this.segmentBytes = (int)segmentSize.toBytes();
+
+		this.appendTimer = Timer.builder("chat.wal.append")
+			.description("append부터 fsync 완료까지 걸린 시간")
+			.publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		this.fsyncTimer = Timer.builder("chat.wal.fsync")
+			.description("group commit 한 번의 force 시간")
+			.register(meterRegistry);
+		this.groupSize = DistributionSummary.builder("chat.wal.group.size")
+			.description("fsync 한 번에 내려간 레코드 수")
+			.register(meterRegistry);
+
+		if (!enabled) {
+			this.syncThread = null;
+			return;
+		}
+		try {
+			Files.createDirectories(directory);
+			this.active = Segment.open(segmentPath(lastSegmentSequence() + 1), segmentBytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException("write-ahead log 디렉터리를 열 수 없습니다: " + directory, e);
+		}
+		this.syncThread = Thread.ofPlatform().name("chat-wal-sync").daemon().start(this::syncLoop);
+	}
+
+	// 메시지를 기록하고 디스크에 내려갈 때까지 대기
+	public void append(ChatMessage message) {
+		appendAll(List.of(message));
+	}
+
+	// 여러 메시지를 이어서 기록하고 마지막 레코드가 디스크에 내려갈 때까지 한 번만 대기
+	public void appendAll(List<ChatMessage> messages) {
+		if (!enabled || messages.isEmpty()) {
+			return;
+		}
+		long start = System.nanoTime();
+		byte[][] payloads = new byte[messages.size()][];
+		int[] checksums = new int[messages.size()];
+		for (int i = 0; i < payloads.length; i++) {
+			byte[] payload = serializer.serialize(messages.get(i));
+			if (payload.length + HEADER_BYTES > segmentBytes) {
+				throw new IllegalArgumentException("메시지가 WAL segment 크기보다 큽니다: " + payload.length);
+			}
+			CRC32C crc = new CRC32C();
+			crc.update(payload);
+			payloads[i] = payload;
+			checksums[i] = (int)crc.getValue();
+		}
+
+		lock.lock();
+		try {
+			for (int i = 0; i < payloads.length; i++) {
+				if (active.remaining() < payloads[i].length + HEADER_BYTES) {
+					roll();
+				}
+				active.write(payloads[i], checksums[i]);
+			}
+			appendedRecords += payloads.length;
+			long sequence = appendedRecords;
+			appended.signal();
+			while (durableRecords < sequence) {
+				durable.awaitUninterruptibly();
+			}
+		} finally {
+			lock.unlock();
+		}
+		appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	// 새 segment로 넘어가고 그 segment 번호를 반환 (이 번호보다 작은 segment에는 더 이상 기록되지 않음)
+	public long checkpoint() {
+		if (!enabled) {
+			return 0;
+		}
+		lock.lock();
+		try {
+			if (active.position() > 0) {
+				roll();
+			}
+			return active.sequence;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// sequence보다 작은 segment 삭제 (해당 메시지가 모두 DB에 커밋된 뒤에만 호출)
+	public void truncateBefore(long sequence) {
+		if (!enabled) {
+			return;
+		}
+		for (Path segment : segmentsBefore(sequence)) {
+			try {
+				Files.deleteIfExists(segment);
+			} catch (IOException e) {
+				System.err.println("Failed to delete WAL segment: " + segment + " - " + e.getMessage());
+			}
+		}
+	}
+
+	// 이전 실행에서 남은 segment의 레코드를 segment 단위로 전달하고, 처리가 끝난 segment는 삭제
+	// (consumer가 예외를 던지면 해당 segment부터는 남겨 두고 다음 기동 때 다시 읽는다)
+	public long replay(Consumer<List<ChatMessage>> consumer) {
+		if (!enabled) {
+			return 0;
+		}
+		long replayed = 0;
+		for (Path segment : segmentsBefore(active.sequence)) {
+			List<ChatMessage> messages = read(segment);
+			if (!messages.isEmpty()) {
+				consumer.accept(messages);
+				replayed += messages.size();
+			}
+			try {
+				Files.deleteIfExists(segment);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return replayed;
+	}
+
+	List<ChatMessage> read(Path segment) {
+		List<ChatMessage> messages = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			while (buffer.remaining() >= HEADER_BYTES) {
+				int length = buffer.getInt();
+				int checksum = buffer.getInt();
+				if (length <= 0 || length > buffer.remaining()) {
+					break;
+				}
+				byte[] payload = new byte[length];
+				buffer.get(payload);
+				CRC32C crc = new CRC32C();
+				crc.update(payload);
+				if ((int)crc.getValue() != checksum) {
+					// 기록 도중 중단된 마지막 레코드
+					break;
+				}
+				messages.add(serializer.deserialize(payload));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("WAL segment를 읽을 수 없습니다: " + segment, e);
+		}
+		return messages;
+	}
+
+	// sync 스레드: append가 쌓이면 한 번의 force로 내리고 그동안 기다린 append를 모두 깨운다
+	private void syncLoop() {
+		while (running) {
+			Segment segment;
+			long target;
+			int from;
+			int to;
+			lock.lock();
+			try {
+				while (running && appendedRecords == durableRecords) {
+					appended.awaitUninterruptibly();
+				}
+				if (!running) {
+					return;
+				}
+				segment = active;
+				target = appendedRecords;
+				from = segment.forcedPosition;
+				to = segment.position();
+			} finally {
+				lock.unlock();
+			}
+
+			long start = System.nanoTime();
+			try {
+				segment.force(from, to - from);
+			} catch (UncheckedIOException e) {
+				// 기다리는 append는 그대로 두고 다음 루프에서 다시 시도
+				System.err.println("Failed to sync WAL segment " + segment.sequence + ": " + e.getMessage());
+				continue;
+			}
+			fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+			lock.lock();
+			try {
+				segment.forcedPosition = Math.max(segment.forcedPosition, to);
+				groupSize.record(target - durableRecords);
+				durableRecords = target;
+				durable.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	// lock을 잡은 상태에서 호출: 이전 segment는 남은 부분을 바로 force 하고 닫는다
+	private void roll() {
+		Segment previous = active;
+		previous.force(previous.forcedPosition, previous.position() - previous.forcedPosition);
+		previous.forcedPosition = previous.position();
+		previous.close();
+		try {
+			active = Segment.open(segmentPath(previous.sequence + 1), segmentBytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException("새 WAL segment를 만들 수 없습니다", e);
+		}
+	}
+
+	private List<Path> segmentsBefore(long sequence) {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> sequenceOf(path) >= 0 && sequenceOf(path) < sequence)
+				.sorted()
+				.toList();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private long lastSegmentSequence() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.mapToLong(MessageWriteAheadLog::sequenceOf).max().orElse(0);
+		}
+	}
+
+	private Path segmentPath(long sequence) {
+		return directory.resolve(SEGMENT_PREFIX + String.format("%020d", sequence) + SEGMENT_SUFFIX);
+	}
+
+	private static long sequenceOf(Path path) {
+		String name = path.getFileName().toString();
+		if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	@PreDestroy
+	public void close() throws InterruptedException {
+		if (!enabled) {
+			return;
+		}
+		lock.lock();
+		try {
+			running = false;
+			appended.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		syncThread.join(TimeUnit.SECONDS.toMillis(5));
+		lock.lock();
+		try {
+			active.force(active.forcedPosition, active.position() - active.forcedPosition);
+			active.close();
+			durableRecords = appendedRecords;
+			durable.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Segment {
+		private final long sequence;
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private int forcedPosition;
+
+		private Segment(long sequence, FileChannel channel, MappedByteBuffer buffer) {
+			this.sequence = sequence;
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		static Segment open(Path path, int size) throws IOException {
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+			return new Segment(sequenceOf(path), channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+		}
+
+		int position() {
+			return buffer.position();
+		}
+
+		int remaining() {
+			return buffer.remaining();
+		}
+
+		void write(byte[] payload, int checksum) {
+			buffer.putInt(payload.length).putInt(checksum).put(payload);
+		}
+
+		void force(int from, int length) {
+			if (length > 0) {
+				buffer.force(from, length);
+			}
+		}
+
+		void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				System.err.println("Failed to close WAL segment " + sequence + ": " + e.getMessage());
+			}
+		}
+	}
+}
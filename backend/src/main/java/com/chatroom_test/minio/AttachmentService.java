@@ -0,0 +1,167 @@
+package com.chatroom_test.minio;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 첨부파일을 내용(SHA-256) 기준으로 한 번만 저장
+// 1. files/{uuid} 로 스트리밍 업로드하면서 해시 계산
+// 2. 이미 있는 내용이면 방금 올린 객체를 지우고 참조 수만 증가
+// 3. 처음 보는 내용이면 올린 객체를 그대로 기록하고 미리보기 생성을 예약 (복사하지 않으므로 한 번만 쓴다)
+// - release로 참조 수를 줄이고, 마지막 참조였으면 원본/미리보기 객체와 기록을 함께 지운다
+// - 기록 전에 중단됐거나 삭제에 실패해 어디에서도 참조하지 않는 객체는 orphan-grace가 지난 뒤 주기적으로 정리
+@Service
+public class AttachmentService {
+
+	static final String FILES_PREFIX = "files/";
+	// 기록과 release가 엇갈려 다시 시도하는 최대 횟수
+	private static final int MAX_RECORD_ATTEMPTS = 3;
+	// 참조 여부를 한 번에 확인할 객체 수
+	private static final int SWEEP_BATCH_SIZE = 500;
+
+	private final MinioService minioService;
+	private final StoredFileRepository storedFileRepository;
+	private final ThumbnailGenerator thumbnailGenerator;
+	private final Duration orphanGrace;
+
+	private final Counter storedFiles;
+	private final Counter deduplicatedFiles;
+	private final Counter releasedFiles;
+	private final Counter sweptObjects;
+
+	public AttachmentService(MinioService minioService,
+		StoredFileRepository storedFileRepository,
+		ThumbnailGenerator thumbnailGenerator,
+		MeterRegistry meterRegistry,
+		@Value("${minio.orphan-sweep.grace:1h}") Duration orphanGrace) {
+		this.minioService = minioService;
+		this.storedFileRepository = storedFileRepository;
+		this.thumbnailGenerator = thumbnailGenerator;
+		this.orphanGrace = orphanGrace;
+
+		this.storedFiles = Counter.builder("files.upload")
+			.tag("result", "stored")
+			.description("새로 저장된 첨부파일 수")
+			.register(meterRegistry);
+		this.deduplicatedFiles = Counter.builder("files.upload")
+			.tag("result", "deduplicated")
+			.description("이미 있는 내용이라 저장을 생략한 첨부파일 수")
+			.register(meterRegistry);
+		this.releasedFiles = Counter.builder("files.released")
+			.description("마지막 참조가 없어져 삭제한 첨부파일 수")
+			.register(meterRegistry);
+		this.sweptObjects = Counter.builder("files.orphans.removed")
+			.description("어디에서도 참조하지 않아 정리한 객체 수")
+			.register(meterRegistry);
+	}
+
+	public StoredFile store(InputStream in, String contentType) throws Exception {
+		UploadedObject uploaded = minioService.uploadStream(in, FILES_PREFIX + UUID.randomUUID(), contentType);
+		String contentHash = uploaded.contentHash();
+		try {
+			for (int attempt = 0; attempt < MAX_RECORD_ATTEMPTS; attempt++) {
+				Optional<StoredFile> existing = storedFileRepository.findById(contentHash);
+				if (existing.isPresent()) {
+					// 0이면 그 사이 release로 지워진 것이므로 방금 올린 객체로 다시 기록
+					if (storedFileRepository.addReference(contentHash) > 0) {
+						removeQuietly(uploaded.fileName());
+						StoredFile file = existing.get();
+						file.setReferenceCount(file.getReferenceCount() + 1);
+						deduplicatedFiles.increment();
+						return file;
+					}
+					continue;
+				}
+				StoredFile file = new StoredFile(contentHash, uploaded.fileName(), contentType, uploaded.size());
+				if (insertIfAbsent(file)) {
+					storedFiles.increment();
+					thumbnailGenerator.submit(file);
+					return file;
+				}
+				// 같은 내용이 동시에 올라와 먼저 기록된 경우 다음 시도에서 참조 추가
+			}
+		} catch (RuntimeException e) {
+			removeQuietly(uploaded.fileName());
+			throw e;
+		}
+		removeQuietly(uploaded.fileName());
+		throw new IllegalStateException("첨부파일을 기록하지 못했습니다: " + contentHash);
+	}
+
+	public Optional<StoredFile> find(String contentHash) {
+		return storedFileRepository.findById(contentHash);
+	}
+
+	// 첨부한 메시지가 삭제되는 등 참조 하나가 없어질 때 호출
+	public void release(String contentHash) {
+		Optional<StoredFile> file = storedFileRepository.findById(contentHash);
+		if (file.isEmpty() || storedFileRepository.removeReference(contentHash) == 0) {
+			return;
+		}
+		// 그 사이 store가 참조를 추가했으면 0이 아니므로 지워지지 않는다
+		if (storedFileRepository.deleteIfUnreferenced(contentHash) == 0) {
+			return;
+		}
+		removeQuietly(file.get().getObjectName());
+		if (file.get().getThumbnailObjectName() != null) {
+			removeQuietly(file.get().getThumbnailObjectName());
+		}
+		releasedFiles.increment();
+	}
+
+	// 업로드 후 기록 전에 중단됐거나, 중복 업로드/release 후 삭제에 실패했거나,
+	// release 중에 미리보기가 만들어져 남은 객체를 정리 (orphan-grace보다 오래된 것만, 진행 중인 업로드는 건드리지 않는다)
+	@Scheduled(fixedDelayString = "${minio.orphan-sweep.interval-ms:3600000}")
+	public void sweepOrphans() {
+		Instant cutoff = Instant.now().minus(orphanGrace);
+		for (String prefix : List.of(FILES_PREFIX, ThumbnailGenerator.THUMBNAIL_PREFIX)) {
+			try {
+				List<String> candidates = minioService.listObjectsModifiedBefore(prefix, cutoff);
+				for (int from = 0; from < candidates.size(); from += SWEEP_BATCH_SIZE) {
+					List<String> batch = candidates.subList(from, Math.min(from + SWEEP_BATCH_SIZE, candidates.size()));
+					Set<String> referenced = new HashSet<>(storedFileRepository.findObjectNamesIn(batch));
+					referenced.addAll(storedFileRepository.findThumbnailObjectNamesIn(batch));
+					for (String objectName : batch) {
+						if (!referenced.contains(objectName)) {
+							removeQuietly(objectName);
+							sweptObjects.increment();
+						}
+					}
+				}
+			} catch (Exception e) {
+				System.err.println("Failed to sweep orphaned objects under " + prefix + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private boolean insertIfAbsent(StoredFile file) {
+		try {
+			return storedFileRepository.insertIfAbsent(file.getContentHash(), file.getObjectName(),
+				file.getContentType(), file.getSize(), file.getCreatedAt()) > 0;
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+
+	private void removeQuietly(String fileName) {
+		try {
+			minioService.removeObject(fileName);
+		} catch (Exception e) {
+			// 남은 객체는 sweepOrphans가 정리한다
+			System.err.println("Failed to remove object " + fileName + ": " + e.getMessage());
+		}
+	}
+}
@@ -1,41 +1,55 @@
 package com.chatroom_test.minio;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/api/files")
 public class FileUploadController {
 
+	// 배치 URL 조회 한 번에 받을 최대 파일 수 (히스토리 페이지 크기보다 넉넉하게)
+	private static final int MAX_URL_BATCH = 500;
+
+	private static final String FILE_PATH_PREFIX = "/api/files/";
+
 	private final MinioService minioService;
+	private final AttachmentService attachmentService;
 
 	@Autowired
-	public FileUploadController(MinioService minioService) {
+	public FileUploadController(MinioService minioService, AttachmentService attachmentService) {
 		this.minioService = minioService;
+		this.attachmentService = attachmentService;
 	}
 
 	@PostMapping("/upload")
 	public ResponseEntity<Map<String, String>> uploadFile(@RequestParam("file") MultipartFile file) {
-		try {
+		try (InputStream in = file.getInputStream()) {
 			// 파일 업로드
-			String fileName = minioService.uploadFile(file);
-			String fileUrl = minioService.getFileUrl(fileName);
+			StoredFile storedFile = attachmentService.store(in, file.getContentType());
 
 			// 성공 시 파일 URL 반환
-			return ResponseEntity.ok(Map.of(
-				"status", "success",
-				"fileName", fileName,
-				"fileUrl", fileUrl
-			));
+			return ResponseEntity.ok(uploadResponse(storedFile));
 		} catch (Exception e) {
 			// 실패 시 에러 메시지 반환
 			return ResponseEntity.status(500).body(Map.of(
@@ -52,6 +66,44 @@ public class FileUploadController {
 		// file.transferTo(destination);
 	}
 
+	// 멀티파트 파싱 없이 요청 본문을 그대로 MinIO 멀티파트 업로드로 흘려보내는 업로드
+	// (본문 전체를 메모리나 임시 파일에 먼저 저장하지 않는다, 객체 이름은 내용 해시로 정해진다)
+	@PostMapping("/stream")
+	public ResponseEntity<Map<String, String>> uploadStream(
+		@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+		HttpServletRequest request) {
+		try {
+			StoredFile storedFile = attachmentService.store(request.getInputStream(), contentType);
+			return ResponseEntity.ok(uploadResponse(storedFile));
+		} catch (Exception e) {
+			return ResponseEntity.status(500).body(Map.of(
+				"status", "error",
+				"message", "파일 업로드 실패: " + e.getMessage()
+			));
+		}
+	}
+
+	// 메시지에 저장되는 고정 주소: 만료되지 않고, 요청 시점에 presigned URL로 redirect
+	@GetMapping("/{contentHash:[0-9a-f]{64}}")
+	public ResponseEntity<Void> redirectToFile(@PathVariable String contentHash) throws Exception {
+		Optional<StoredFile> file = attachmentService.find(contentHash);
+		if (file.isEmpty()) {
+			return ResponseEntity.notFound().build();
+		}
+		return redirect(file.get().getObjectName());
+	}
+
+	// 미리보기가 아직 없으면(생성 중이거나 이미지가 아니면) 원본으로 redirect
+	@GetMapping("/{contentHash:[0-9a-f]{64}}/thumbnail")
+	public ResponseEntity<Void> redirectToThumbnail(@PathVariable String contentHash) throws Exception {
+		Optional<StoredFile> file = attachmentService.find(contentHash);
+		if (file.isEmpty()) {
+			return ResponseEntity.notFound().build();
+		}
+		String thumbnail = file.get().getThumbnailObjectName();
+		return redirect(thumbnail != null ? thumbnail : file.get().getObjectName());
+	}
+
 	@GetMapping("/url/{fileName}")
 	public ResponseEntity<String> getFileUrl(@PathVariable String fileName) {
 		try {
@@ -62,4 +114,36 @@ public class FileUploadController {
 			return ResponseEntity.status(500).body("Error getting file URL: " + e.getMessage());
 		}
 	}
+
+	// 히스토리 페이지 렌더링용: 여러 파일의 URL을 한 번에 조회 (fileName -> url)
+	@PostMapping("/urls")
+	public ResponseEntity<?> getFileUrls(@RequestBody List<String> fileNames) {
+		if (fileNames.size() > MAX_URL_BATCH) {
+			return ResponseEntity.badRequest().body("한 번에 최대 " + MAX_URL_BATCH + "개까지 조회할 수 있습니다.");
+		}
+		try {
+			return ResponseEntity.ok(minioService.getFileUrls(fileNames));
+		} catch (Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(500).body("Error getting file URLs: " + e.getMessage());
+		}
+	}
+
+	// 업로드 직후 바로 메시지에 붙일 수 있도록 원본/미리보기의 고정 주소를 함께 반환
+	private static Map<String, String> uploadResponse(StoredFile storedFile) {
+		return Map.of(
+			"status", "success",
+			"fileName", storedFile.getContentHash(),
+			"fileUrl", FILE_PATH_PREFIX + storedFile.getContentHash(),
+			"thumbnailUrl", FILE_PATH_PREFIX + storedFile.getContentHash() + "/thumbnail"
+		);
+	}
+
+	private ResponseEntity<Void> redirect(String objectName) throws Exception {
+		// presigned URL은 캐시에서 safety-margin 전에 교체되므로 브라우저도 그보다 짧게만 캐시
+		return ResponseEntity.status(HttpStatus.FOUND)
+			.location(URI.create(minioService.getFileUrl(objectName)))
+			.cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate())
+			.build();
+	}
 }
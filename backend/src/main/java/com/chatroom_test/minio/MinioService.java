@@ -1,64 +1,308 @@
 package com.chatroom_test.minio;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.unit.DataSize;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
 import io.minio.http.Method;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
 
 @Service
 public class MinioService {
 
 	private final MinioClient minioClient;
+	private final MultipartUploadClient multipartClient;
 	private final String bucketName;
+	private final PartBufferPool partBufferPool;
+	private final int partConcurrency;
+	private final long maxUploadBytes;
+	private final Duration bufferWait;
+	private final Duration urlExpiry;
+	private final Cache<String, String> presignedUrls;
+	private volatile boolean bucketReady;
 
 	public MinioService(@Value("${minio.url}") String minioUrl,
 		@Value("${minio.accessKey}") String minioAccessKey,
 		@Value("${minio.secretKey}") String minioSecretKey,
-		@Value("${minio.bucketName}") String bucketName) {
+		@Value("${minio.bucketName}") String bucketName,
+		@Value("${minio.region:us-east-1}") String region,
+		@Value("${minio.upload.part-size:5MB}") DataSize partSize,
+		@Value("${minio.upload.buffer-count:16}") int bufferCount,
+		@Value("${minio.upload.part-concurrency:4}") int partConcurrency,
+		@Value("${minio.upload.max-size:1GB}") DataSize maxUploadSize,
+		@Value("${minio.upload.buffer-wait:30s}") Duration bufferWait,
+		@Value("${minio.presigned.expiry:60m}") Duration urlExpiry,
+		@Value("${minio.presigned.safety-margin:5m}") Duration urlSafetyMargin,
+		@Value("${minio.presigned.maximum-size:50000}") long maxCachedUrls,
+		MeterRegistry meterRegistry) {
+		if (urlSafetyMargin.isNegative() || urlSafetyMargin.compareTo(urlExpiry) >= 0) {
+			throw new IllegalStateException("minio.presigned.safety-margin(" + urlSafetyMargin
+				+ ")은 0 이상이고 minio.presigned.expiry(" + urlExpiry + ")보다 짧아야 합니다.");
+		}
+		// region을 지정해 두면 요청마다 버킷 위치를 조회하지 않는다
 		this.minioClient = MinioClient.builder()
 			.endpoint(minioUrl)
 			.credentials(minioAccessKey, minioSecretKey)
+			.region(region)
 			.build();
+		this.multipartClient = new MultipartUploadClient(MinioAsyncClient.builder()
+			.endpoint(minioUrl)
+			.credentials(minioAccessKey, minioSecretKey)
+			.region(region)
+			.build());
 		this.bucketName = bucketName;
+		this.partBufferPool = new PartBufferPool((int)partSize.toBytes(), bufferCount);
+		this.partConcurrency = partConcurrency;
+		this.maxUploadBytes = maxUploadSize.toBytes();
+		this.bufferWait = bufferWait;
+		this.urlExpiry = urlExpiry;
+		// 모든 URL의 만료 시간이 같으므로 만료 직전 여유(safety-margin)만큼 먼저 캐시에서 내린다
+		// (클라이언트가 받은 URL로 실제 요청을 보낼 때까지 최소 safety-margin 만큼은 유효)
+		this.presignedUrls = Caffeine.newBuilder()
+			.maximumSize(maxCachedUrls)
+			.expireAfterWrite(urlExpiry.minus(urlSafetyMargin))
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, presignedUrls, "presignedUrls");
 	}
 
-	public String uploadFile(MultipartFile file) throws IOException, Exception {
-		String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-
-		boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-		if (!found) {
-			minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+	// 기동 시 한 번만 버킷 확인/생성 (MinIO가 아직 떠 있지 않으면 첫 업로드 때 다시 시도)
+	@EventListener(ApplicationReadyEvent.class)
+	public void bootstrapBucket() {
+		try {
+			ensureBucket();
+		} catch (Exception e) {
+			System.err.println("MinIO bucket bootstrap failed, will retry on first upload: " + e.getMessage());
 		}
+	}
 
-		minioClient.putObject(
-			PutObjectArgs.builder()
-				.bucket(bucketName)
-				.object(fileName)
-				.stream(file.getInputStream(), file.getSize(), -1)
-				.contentType(file.getContentType())
-				.build()
-		);
+	// 요청 본문 등 길이를 모르는 스트림을 part 크기만큼 읽어 멀티파트 업로드
+	// - part 버퍼는 공용 풀에서 빌려 쓰고 업로드가 끝나면 바로 반납
+	//   다음 part의 첫 바이트가 도착한 뒤에 빌리므로 본문을 보내지 않고 있는 클라이언트는 버퍼를 잡지 않고,
+	//   버퍼가 모두 사용 중이면 buffer-wait 까지만 기다린 뒤 실패한다 (느린 업로드가 다른 업로드를 무한정 막지 않도록)
+	// - 한 업로드에서 동시에 올리는 part 수는 part-concurrency로 제한 (다음 part를 읽는 동안 이전 part 전송)
+	// - 실패하면 멀티파트 업로드를 abort 해서 MinIO에 조각이 남지 않게 한다
+	// - 읽는 동안 SHA-256을 함께 계산해 내용 기준 중복 제거에 쓴다 (스트림을 다시 읽지 않는다)
+	public UploadedObject uploadStream(InputStream in, String fileName, String contentType) throws Exception {
+		ensureBucket();
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		String uploadId = multipartClient.createUpload(bucketName, fileName, contentType);
+
+		List<CompletableFuture<Part>> parts = new ArrayList<>();
+		Semaphore inFlight = new Semaphore(partConcurrency);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		try {
+			long total = 0;
+			int partNumber = 1;
+			while (failure.get() == null) {
+				inFlight.acquire();
+				int first;
+				try {
+					first = in.read();
+				} catch (IOException e) {
+					inFlight.release();
+					throw e;
+				}
+				// 빈 파일도 part 하나는 올려야 완료할 수 있다
+				if (first < 0 && partNumber > 1) {
+					inFlight.release();
+					break;
+				}
+				byte[] buffer = partBufferPool.acquire(bufferWait);
+				if (buffer == null) {
+					inFlight.release();
+					throw new IOException("업로드 버퍼를 " + bufferWait.toSeconds() + "초 안에 얻지 못했습니다.");
+				}
+				int length = 0;
+				if (first >= 0) {
+					buffer[0] = (byte)first;
+					try {
+						length = 1 + readFully(in, buffer, 1);
+					} catch (IOException e) {
+						partBufferPool.release(buffer);
+						inFlight.release();
+						throw e;
+					}
+				}
+				total += length;
+				digest.update(buffer, 0, length);
+				if (total > maxUploadBytes) {
+					partBufferPool.release(buffer);
+					inFlight.release();
+					throw new IOException("업로드 최대 크기를 초과했습니다: " + maxUploadBytes + " bytes");
+				}
 
-		return fileName;
+				CompletableFuture<Part> part;
+				try {
+					part = multipartClient.uploadPart(bucketName, fileName, uploadId, partNumber++, buffer, length);
+				} catch (Exception e) {
+					partBufferPool.release(buffer);
+					inFlight.release();
+					throw e;
+				}
+				parts.add(part.whenComplete((uploaded, error) -> {
+					partBufferPool.release(buffer);
+					inFlight.release();
+					if (error != null) {
+						failure.compareAndSet(null, error);
+					}
+				}));
+				if (length < buffer.length) {
+					break;
+				}
+			}
+
+			Part[] uploaded = new Part[parts.size()];
+			for (int i = 0; i < parts.size(); i++) {
+				uploaded[i] = parts.get(i).join();
+			}
+			multipartClient.complete(bucketName, fileName, uploadId, uploaded);
+			return new UploadedObject(fileName, HexFormat.of().formatHex(digest.digest()), total);
+		} catch (Exception e) {
+			abortQuietly(fileName, uploadId, parts);
+			throw e;
+		}
 	}
 
+	// 같은 첨부파일은 만료 여유가 남아 있는 동안 이미 서명한 URL을 재사용
 	public String getFileUrl(String fileName) throws Exception {
+		String cached = presignedUrls.getIfPresent(fileName);
+		if (cached != null) {
+			return cached;
+		}
+		// 서명은 캐시의 compute 밖에서 수행 (동시에 여러 번 서명돼도 결과는 모두 유효)
+		String url = presign(fileName);
+		presignedUrls.put(fileName, url);
+		return url;
+	}
+
+	// 히스토리 한 페이지의 첨부파일 URL을 한 번에 조회 (요청 순서 유지, 중복 제거)
+	public Map<String, String> getFileUrls(Collection<String> fileNames) throws Exception {
+		Map<String, String> urls = new LinkedHashMap<>();
+		for (String fileName : fileNames) {
+			if (!urls.containsKey(fileName)) {
+				urls.put(fileName, getFileUrl(fileName));
+			}
+		}
+		return urls;
+	}
+
+	private String presign(String fileName) throws Exception {
 		return minioClient.getPresignedObjectUrl(
 			GetPresignedObjectUrlArgs.builder()
 				.bucket(bucketName)
 				.object(fileName)
 				.method(Method.GET)
-				.expiry(60, TimeUnit.MINUTES)
+				.expiry((int)urlExpiry.toSeconds(), TimeUnit.SECONDS)
 				.build()
 		);
 	}
+
+	// prefix 아래에서 before 이전에 마지막으로 쓰인 객체 이름
+	public List<String> listObjectsModifiedBefore(String prefix, Instant before) throws Exception {
+		List<String> names = new ArrayList<>();
+		Iterable<Result<Item>> results = minioClient.listObjects(ListObjectsArgs.builder()
+			.bucket(bucketName)
+			.prefix(prefix)
+			.recursive(true)
+			.build());
+		for (Result<Item> result : results) {
+			Item item = result.get();
+			if (!item.isDir() && item.lastModified().toInstant().isBefore(before)) {
+				names.add(item.objectName());
+			}
+		}
+		return names;
+	}
+
+	public void putObject(String fileName, byte[] content, String contentType) throws Exception {
+		minioClient.putObject(PutObjectArgs.builder()
+			.bucket(bucketName)
+			.object(fileName)
+			.stream(new ByteArrayInputStream(content), content.length, -1)
+			.contentType(contentType)
+			.build());
+	}
+
+	public InputStream getObject(String fileName) throws Exception {
+		return minioClient.getObject(GetObjectArgs.builder().bucket(bucketName).object(fileName).build());
+	}
+
+	public void removeObject(String fileName) throws Exception {
+		minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(fileName).build());
+		presignedUrls.invalidate(fileName);
+	}
+
+	int getAvailablePartBuffers() {
+		return partBufferPool.available();
+	}
+
+	private void ensureBucket() throws Exception {
+		if (bucketReady) {
+			return;
+		}
+		boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+		if (!found) {
+			minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+		}
+		bucketReady = true;
+	}
+
+	private void abortQuietly(String fileName, String uploadId, List<CompletableFuture<Part>> parts) {
+		// 진행 중인 part가 끝난 뒤 abort 해야 조각이 남지 않는다
+		parts.forEach(part -> part.exceptionally(error -> null).join());
+		try {
+			multipartClient.abort(bucketName, fileName, uploadId);
+		} catch (Exception e) {
+			System.err.println("Failed to abort multipart upload " + uploadId + ": " + e.getMessage());
+		}
+	}
+
+	// offset부터 버퍼가 가득 차거나 스트림이 끝날 때까지 읽기 (읽은 바이트 수 반환)
+	private static int readFully(InputStream in, byte[] buffer, int offset) throws IOException {
+		int position = offset;
+		while (position < buffer.length) {
+			int read = in.read(buffer, position, buffer.length - position);
+			if (read < 0) {
+				break;
+			}
+			position += read;
+		}
+		return position - offset;
+	}
 }
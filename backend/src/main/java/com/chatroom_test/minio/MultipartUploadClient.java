@@ -0,0 +1,45 @@
+package com.chatroom_test.minio;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.Part;
+
+// MinioAsyncClient의 S3 멀티파트 API(create/uploadPart/complete/abort)를 part 단위로 호출하기 위한 어댑터
+// (putObject는 스트림을 자체적으로 part로 나누며 순차 업로드하므로 버퍼 풀과 동시 업로드 수를 직접 제어할 수 없다)
+class MultipartUploadClient extends MinioAsyncClient {
+
+	MultipartUploadClient(MinioAsyncClient client) {
+		super(client);
+	}
+
+	String createUpload(String bucket, String objectName, String contentType) throws Exception {
+		Multimap<String, String> headers = HashMultimap.create();
+		if (contentType != null && !contentType.isBlank()) {
+			headers.put("Content-Type", contentType);
+		}
+		return createMultipartUploadAsync(bucket, null, objectName, headers, null)
+			.get()
+			.result()
+			.uploadId();
+	}
+
+	// buffer의 앞 length 바이트를 partNumber 번째 part로 업로드
+	CompletableFuture<Part> uploadPart(String bucket, String objectName, String uploadId, int partNumber,
+		byte[] buffer, int length) throws Exception {
+		return uploadPartAsync(bucket, null, objectName, buffer, length, uploadId, partNumber, null, null)
+			.thenApply(response -> new Part(partNumber, response.etag()));
+	}
+
+	ObjectWriteResponse complete(String bucket, String objectName, String uploadId, Part[] parts) throws Exception {
+		return completeMultipartUploadAsync(bucket, null, objectName, uploadId, parts, null, null).get();
+	}
+
+	void abort(String bucket, String objectName, String uploadId) throws Exception {
+		abortMultipartUploadAsync(bucket, null, objectName, uploadId, null, null).get();
+	}
+}
@@ -0,0 +1,39 @@
+package com.chatroom_test.minio;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// 멀티파트 업로드용 고정 크기 part 버퍼 풀
+// - 버퍼 수 x part 크기 이상 메모리를 쓰지 않고, 버퍼가 모두 사용 중이면 반납될 때까지(최대 timeout) 요청 본문 읽기를 멈춘다
+public class PartBufferPool {
+
+	private final int partSize;
+	private final BlockingQueue<byte[]> buffers;
+
+	public PartBufferPool(int partSize, int bufferCount) {
+		this.partSize = partSize;
+		this.buffers = new ArrayBlockingQueue<>(bufferCount);
+		for (int i = 0; i < bufferCount; i++) {
+			buffers.add(new byte[partSize]);
+		}
+	}
+
+	public int getPartSize() {
+		return partSize;
+	}
+
+	public int available() {
+		return buffers.size();
+	}
+
+	// timeout 안에 반납되는 버퍼가 없으면 null
+	public byte[] acquire(Duration timeout) throws InterruptedException {
+		return buffers.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	public void release(byte[] buffer) {
+		buffers.offer(buffer);
+	}
+}
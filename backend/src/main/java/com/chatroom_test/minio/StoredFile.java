@@ -0,0 +1,48 @@
+package com.chatroom_test.minio;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 내용(SHA-256) 기준으로 한 번만 저장되는 첨부파일
+// 같은 파일을 여러 방에 보내도 MinIO 객체는 하나이고 referenceCount만 늘어난다
+@Entity
+@Table(name = "stored_files")
+@Getter
+@Setter
+@NoArgsConstructor
+public class StoredFile {
+
+	@Id
+	@Column(length = 64)
+	private String contentHash;
+
+	@Column(nullable = false)
+	private String objectName;
+
+	private String contentType;
+	private long size;
+
+	// 이 파일을 첨부한 업로드 수
+	private long referenceCount;
+
+	// 미리보기 생성이 끝나면 채워진다 (이미지가 아니거나 생성 전이면 null)
+	private String thumbnailObjectName;
+
+	private LocalDateTime createdAt;
+
+	public StoredFile(String contentHash, String objectName, String contentType, long size) {
+		this.contentHash = contentHash;
+		this.objectName = objectName;
+		this.contentType = contentType;
+		this.size = size;
+		this.referenceCount = 1;
+		this.createdAt = LocalDateTime.now();
+	}
+}
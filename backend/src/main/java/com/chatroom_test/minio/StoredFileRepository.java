@@ -0,0 +1,56 @@
+package com.chatroom_test.minio;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+	// 처음 보는 내용일 때만 생성 (동시에 같은 파일이 올라와도 한 요청만 성공, 나머지는 참조 추가)
+	@Transactional
+	@Modifying
+	@Query(value = "insert into stored_files (content_hash, object_name, content_type, size, reference_count, created_at) "
+		+ "select :contentHash, :objectName, :contentType, :size, 1, :createdAt "
+		+ "where not exists (select 1 from stored_files where content_hash = :contentHash)",
+		nativeQuery = true)
+	int insertIfAbsent(@Param("contentHash") String contentHash, @Param("objectName") String objectName,
+		@Param("contentType") String contentType, @Param("size") long size,
+		@Param("createdAt") LocalDateTime createdAt);
+
+	// 동시에 같은 파일이 올라와도 참조 수가 빠지지 않도록 DB에서 증가
+	@Transactional
+	@Modifying
+	@Query("update StoredFile f set f.referenceCount = f.referenceCount + 1 where f.contentHash = :contentHash")
+	int addReference(@Param("contentHash") String contentHash);
+
+	@Transactional
+	@Modifying
+	@Query("update StoredFile f set f.referenceCount = f.referenceCount - 1 "
+		+ "where f.contentHash = :contentHash and f.referenceCount > 0")
+	int removeReference(@Param("contentHash") String contentHash);
+
+	// 참조 수가 0인 경우에만 삭제 (removeReference 뒤에 참조가 다시 늘었으면 지우지 않는다)
+	@Transactional
+	@Modifying
+	@Query("delete from StoredFile f where f.contentHash = :contentHash and f.referenceCount = 0")
+	int deleteIfUnreferenced(@Param("contentHash") String contentHash);
+
+	// 주어진 객체 이름 중 원본/미리보기로 기록된 것 (고아 객체 정리용)
+	@Query("select f.objectName from StoredFile f where f.objectName in :objectNames")
+	List<String> findObjectNamesIn(@Param("objectNames") Collection<String> objectNames);
+
+	@Query("select f.thumbnailObjectName from StoredFile f where f.thumbnailObjectName in :objectNames")
+	List<String> findThumbnailObjectNamesIn(@Param("objectNames") Collection<String> objectNames);
+
+	@Transactional
+	@Modifying
+	@Query("update StoredFile f set f.thumbnailObjectName = :thumbnailObjectName where f.contentHash = :contentHash")
+	int updateThumbnail(@Param("contentHash") String contentHash,
+		@Param("thumbnailObjectName") String thumbnailObjectName);
+}
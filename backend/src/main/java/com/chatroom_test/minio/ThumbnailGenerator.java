@@ -0,0 +1,171 @@
+package com.chatroom_test.minio;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// 업로드된 이미지의 미리보기(JPEG)를 업로드 요청과 별도로 생성
+// - 원본은 MinIO에서 다시 읽어 긴 변이 max-dimension 이하가 되도록 줄인다
+// - 작은 파일이 거대한 픽셀 수로 풀리는 경우(decompression bomb)를 막기 위해 헤더의 크기를 먼저 읽어 max-pixels를 넘으면 건너뛰고,
+//   디코딩은 subsampling으로 필요한 해상도(긴 변 2 * max-dimension 안팎)만 읽는다
+// - 생성이 끝나면 StoredFile.thumbnailObjectName을 채우고, 그 전에는 미리보기 URL이 원본으로 연결된다
+@Component
+public class ThumbnailGenerator {
+
+	static final String THUMBNAIL_PREFIX = "thumbnails/";
+
+	private final MinioService minioService;
+	private final StoredFileRepository storedFileRepository;
+	private final int maxDimension;
+	private final long maxSourceBytes;
+	private final long maxPixels;
+	private final ExecutorService executor;
+
+	private final Timer generateTimer;
+	private final Counter skipped;
+	private final Counter failed;
+
+	public ThumbnailGenerator(MinioService minioService,
+		StoredFileRepository storedFileRepository,
+		MeterRegistry meterRegistry,
+		@Value("${minio.thumbnail.max-dimension:320}") int maxDimension,
+		@Value("${minio.thumbnail.max-source-size:20MB}") DataSize maxSourceSize,
+		@Value("${minio.thumbnail.max-pixels:40000000}") long maxPixels,
+		@Value("${minio.thumbnail.threads:2}") int threads) {
+		this.minioService = minioService;
+		this.storedFileRepository = storedFileRepository;
+		this.maxDimension = maxDimension;
+		this.maxSourceBytes = maxSourceSize.toBytes();
+		this.maxPixels = maxPixels;
+		// 이미지 디코딩은 CPU/메모리를 많이 쓰므로 작은 고정 풀에서만 수행
+		this.executor = Executors.newFixedThreadPool(threads,
+			Thread.ofPlatform().name("thumbnail-generator-", 0).daemon().factory());
+
+		this.generateTimer = Timer.builder("files.thumbnail.generate")
+			.description("미리보기 생성 시간")
+			.register(meterRegistry);
+		this.skipped = Counter.builder("files.thumbnail.skipped")
+			.description("이미지가 아니거나 파일/픽셀 수가 너무 커서 미리보기를 만들지 않은 파일 수")
+			.register(meterRegistry);
+		this.failed = Counter.builder("files.thumbnail.failed")
+			.description("미리보기 생성 실패 수")
+			.register(meterRegistry);
+	}
+
+	public void submit(StoredFile file) {
+		if (!isSupported(file)) {
+			skipped.increment();
+			return;
+		}
+		executor.execute(() -> {
+			try {
+				generateTimer.recordCallable(() -> {
+					generate(file);
+					return null;
+				});
+			} catch (Exception e) {
+				failed.increment();
+				System.err.println("Thumbnail generation failed for " + file.getContentHash() + ": " + e.getMessage());
+			}
+		});
+	}
+
+	private boolean isSupported(StoredFile file) {
+		return file.getContentType() != null
+			&& file.getContentType().startsWith("image/")
+			&& file.getSize() <= maxSourceBytes;
+	}
+
+	private void generate(StoredFile file) throws Exception {
+		BufferedImage source;
+		try (InputStream in = minioService.getObject(file.getObjectName())) {
+			source = decode(in);
+		}
+		if (source == null) {
+			// ImageIO가 읽지 못하는 형식 (예: webp, svg) 이거나 픽셀 수 초과
+			skipped.increment();
+			return;
+		}
+		String thumbnailObjectName = THUMBNAIL_PREFIX + file.getContentHash() + ".jpg";
+		minioService.putObject(thumbnailObjectName, toJpeg(resize(source, maxDimension)), "image/jpeg");
+		storedFileRepository.updateThumbnail(file.getContentHash(), thumbnailObjectName);
+	}
+
+	// 헤더에서 크기만 먼저 읽고, 허용 범위면 subsampling으로 디코딩 (읽을 수 없거나 너무 크면 null)
+	private BufferedImage decode(InputStream in) throws IOException {
+		try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+			if (input == null) {
+				return null;
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+			if (!readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+				int width = reader.getWidth(0);
+				int height = reader.getHeight(0);
+				if ((long)width * height > maxPixels) {
+					return null;
+				}
+				ImageReadParam param = reader.getDefaultReadParam();
+				int step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+				param.setSourceSubsampling(step, step, 0, 0);
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	// 비율을 유지하며 긴 변을 maxDimension 이하로 줄인다 (투명 배경은 흰색으로 채움)
+	static BufferedImage resize(BufferedImage source, int maxDimension) {
+		double scale = Math.min(1.0, (double)maxDimension / Math.max(source.getWidth(), source.getHeight()));
+		int width = Math.max(1, (int)Math.round(source.getWidth() * scale));
+		int height = Math.max(1, (int)Math.round(source.getHeight() * scale));
+
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+		return target;
+	}
+
+	private static byte[] toJpeg(BufferedImage image) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", out);
+		return out.toByteArray();
+	}
+
+	@PreDestroy
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,5 @@
+package com.chatroom_test.minio;
+
+// 멀티파트 업로드 결과 (업로드하면서 계산한 SHA-256 hex 포함)
+public record UploadedObject(String fileName, String contentHash, long size) {
+}
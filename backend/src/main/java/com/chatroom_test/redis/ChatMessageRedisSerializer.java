@@ -0,0 +1,186 @@
+package com.chatroom_test.redis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// ChatMessage 전용 바이너리 직렬화
+// [version(1)][flags(1)][id(8)]?[sender]?[receiver]?[content]?[timestamp(8+4)]?[fileUrl]?[roomId]?[messageId]?
+// 버전 2는 flags 다음에 확장 flags(1)가 붙고 맨 뒤에 [thumbnailUrl]? 이 추가된다
+// (확장 필드가 없는 메시지는 이전 버전 노드도 읽을 수 있도록 계속 버전 1로 쓴다)
+// - 문자열은 varint 길이 + UTF-8, timestamp는 UTC 기준 epoch second + nano
+// - ChatRoom은 roomId만 저장 (client, expert, lastRead 값은 매 메시지마다 반복하지 않음)
+// - 첫 바이트가 '{' 이면 이전 Jackson JSON 형식으로 읽는다
+public class ChatMessageRedisSerializer implements RedisSerializer<ChatMessage> {
+
+	static final byte VERSION_1 = 1;
+	static final byte VERSION_2 = 2;
+
+	private static final int HAS_ID = 1;
+	private static final int HAS_SENDER = 1 << 1;
+	private static final int HAS_RECEIVER = 1 << 2;
+	private static final int HAS_CONTENT = 1 << 3;
+	private static final int HAS_TIMESTAMP = 1 << 4;
+	private static final int HAS_FILE_URL = 1 << 5;
+	private static final int HAS_ROOM_ID = 1 << 6;
+	private static final int HAS_MESSAGE_ID = 1 << 7;
+
+	// 버전 2 확장 flags
+	private static final int HAS_THUMBNAIL_URL = 1;
+
+	private final Jackson2JsonRedisSerializer<ChatMessage> legacySerializer;
+
+	public ChatMessageRedisSerializer() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new JavaTimeModule());
+		this.legacySerializer = new Jackson2JsonRedisSerializer<>(objectMapper, ChatMessage.class);
+	}
+
+	@Override
+	public byte[] serialize(ChatMessage message) throws SerializationException {
+		if (message == null) {
+			return new byte[0];
+		}
+		String roomId = message.getChatRoom() != null ? message.getChatRoom().getRoomId() : null;
+		int flags = (message.getId() != null ? HAS_ID : 0)
+			| (message.getSender() != null ? HAS_SENDER : 0)
+			| (message.getReceiver() != null ? HAS_RECEIVER : 0)
+			| (message.getContent() != null ? HAS_CONTENT : 0)
+			| (message.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+			| (message.getFileUrl() != null ? HAS_FILE_URL : 0)
+			| (roomId != null ? HAS_ROOM_ID : 0)
+			| (message.getMessageId() != null ? HAS_MESSAGE_ID : 0);
+		int extendedFlags = message.getThumbnailUrl() != null ? HAS_THUMBNAIL_URL : 0;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(extendedFlags != 0 ? VERSION_2 : VERSION_1);
+			out.writeByte(flags);
+			if (extendedFlags != 0) {
+				out.writeByte(extendedFlags);
+			}
+			if (message.getId() != null) {
+				out.writeLong(message.getId());
+			}
+			writeString(out, message.getSender());
+			writeString(out, message.getReceiver());
+			writeString(out, message.getContent());
+			if (message.getTimestamp() != null) {
+				out.writeLong(message.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+				out.writeInt(message.getTimestamp().getNano());
+			}
+			writeString(out, message.getFileUrl());
+			writeString(out, roomId);
+			writeString(out, message.getMessageId());
+			writeString(out, message.getThumbnailUrl());
+		} catch (IOException e) {
+			throw new SerializationException("ChatMessage 직렬화 실패", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public ChatMessage deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] == '{') {
+			return legacySerializer.deserialize(bytes);
+		}
+		if (bytes[0] != VERSION_1 && bytes[0] != VERSION_2) {
+			throw new SerializationException("지원하지 않는 ChatMessage 형식 버전: " + bytes[0]);
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+			int flags = in.readUnsignedByte();
+			int extendedFlags = bytes[0] == VERSION_2 ? in.readUnsignedByte() : 0;
+			ChatMessage message = new ChatMessage();
+			if ((flags & HAS_ID) != 0) {
+				message.setId(in.readLong());
+			}
+			if ((flags & HAS_SENDER) != 0) {
+				message.setSender(readString(in));
+			}
+			if ((flags & HAS_RECEIVER) != 0) {
+				message.setReceiver(readString(in));
+			}
+			if ((flags & HAS_CONTENT) != 0) {
+				message.setContent(readString(in));
+			}
+			if ((flags & HAS_TIMESTAMP) != 0) {
+				long epochSecond = in.readLong();
+				int nano = in.readInt();
+				message.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+			}
+			if ((flags & HAS_FILE_URL) != 0) {
+				message.setFileUrl(readString(in));
+			}
+			if ((flags & HAS_ROOM_ID) != 0) {
+				ChatRoom room = new ChatRoom();
+				room.setRoomId(readString(in));
+				message.setChatRoom(room);
+			}
+			if ((flags & HAS_MESSAGE_ID) != 0) {
+				message.setMessageId(readString(in));
+			}
+			if ((extendedFlags & HAS_THUMBNAIL_URL) != 0) {
+				message.setThumbnailUrl(readString(in));
+			}
+			return message;
+		} catch (IOException e) {
+			throw new SerializationException("ChatMessage 역직렬화 실패", e);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, encoded.length);
+		out.write(encoded);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] encoded = new byte[readVarInt(in)];
+		in.readFully(encoded);
+		return new String(encoded, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (shift > 28) {
+				throw new IOException("잘못된 varint 길이");
+			}
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+}
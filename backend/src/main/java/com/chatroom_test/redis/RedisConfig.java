@@ -4,12 +4,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import com.chatroom_test.chat.entity.ChatMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @Configuration
 public class RedisConfig {
@@ -19,11 +16,8 @@ public class RedisConfig {
 		RedisTemplate<String, ChatMessage> template = new RedisTemplate<>();
 		template.setConnectionFactory(redisConnectionFactory);
 
-		// Jackson2JsonRedisSerializer 설정
-		Jackson2JsonRedisSerializer<ChatMessage> serializer = new Jackson2JsonRedisSerializer<>(ChatMessage.class);
-		ObjectMapper objectMapper = new ObjectMapper();
-		objectMapper.registerModule(new JavaTimeModule());
-		serializer.setObjectMapper(objectMapper);
+		// ChatMessage 바이너리 직렬화 (이전 JSON 형식 값도 읽을 수 있음)
+		ChatMessageRedisSerializer serializer = new ChatMessageRedisSerializer();
 
 		// Redis key와 value 직렬화 방식 설정
 		template.setKeySerializer(new StringRedisSerializer());
@@ -1,17 +1,21 @@
 package com.chatroom_test.security;
 
+import java.security.Principal;
+import java.time.Duration;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.chatroom_test.user.entity.User;
 import com.chatroom_test.user.repository.UserRepository;
+import com.chatroom_test.user.service.UserLookupService;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -33,27 +38,48 @@ public class AuthController {
 	@Autowired
 	private UserRepository userRepository;
 
+	@Autowired
+	private UserLookupService userLookupService;
+
 	@Autowired
 	private PasswordEncoder passwordEncoder;
 
 	@Autowired
 	private AuthenticationManager authenticationManager;
 
+	@Autowired
+	private TokenService tokenService;
+
+	@Value("${security.auth.mode:session}")
+	private String authMode;
+
 	@PostMapping("/register")
 	public ResponseEntity<?> registerUser(@RequestBody User user) {
-		if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-			return ResponseEntity
-				.status(HttpStatus.CONFLICT)
-				.body("이미 존재하는 아이디입니다.");
+		// 대부분의 새 아이디는 Bloom filter에서 바로 걸러져 DB 조회 없이 저장으로 넘어간다
+		if (userLookupService.exists(user.getUsername())) {
+			return conflict();
 		}
 		user.setPassword(passwordEncoder.encode(user.getPassword()));
-		userRepository.save(user);
+		try {
+			userRepository.save(user);
+		} catch (DataIntegrityViolationException e) {
+			// 같은 아이디로 동시에 가입한 경우 (username unique 제약)
+			return conflict();
+		}
+		userLookupService.registered(user.getUsername());
 
 		return ResponseEntity.ok("회원가입이 완료되었습니다.");
 	}
 
+	private ResponseEntity<String> conflict() {
+		return ResponseEntity
+			.status(HttpStatus.CONFLICT)
+			.body("이미 존재하는 아이디입니다.");
+	}
+
 	@PostMapping("/login")
-	public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginData, HttpServletRequest request) {
+	public ResponseEntity<?> loginUser(@RequestBody Map<String, String> loginData, HttpServletRequest request,
+		HttpServletResponse response) {
 		String username = loginData.get("username");
 		String password = loginData.get("password");
 
@@ -61,22 +87,32 @@ public class AuthController {
 			Authentication auth = authenticationManager.authenticate(
 				new UsernamePasswordAuthenticationToken(username, password)
 			);
-			SecurityContextHolder.getContext().setAuthentication(auth);
-			// 세션에 SecurityContext 저장
-			request.getSession(true)
-				.setAttribute("SPRING_SECURITY_CONTEXT", SecurityContextHolder.getContext());
-			return ResponseEntity.ok("로그인 성공");
+			if (!AuthMode.isToken(authMode)) {
+				SecurityContextHolder.getContext().setAuthentication(auth);
+				// 세션에 SecurityContext 저장
+				request.getSession(true)
+					.setAttribute("SPRING_SECURITY_CONTEXT", SecurityContextHolder.getContext());
+			}
+			// 서명 토큰 발급: REST는 HttpOnly 쿠키로, STOMP CONNECT는 본문의 token을 Authorization 헤더로 보낸다
+			String token = tokenService.issue(auth.getName());
+			response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie(token, tokenService.getTtl()).toString());
+			return ResponseEntity.ok(Map.of(
+				"message", "로그인 성공",
+				"token", token,
+				"expiresIn", tokenService.getTtl().toSeconds()
+			));
 		} catch (AuthenticationException e) {
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("로그인 실패");
 		}
 	}
 
+	// 세션 로그인(UserDetails)과 토큰 인증(username) 모두 Principal 이름으로 확인
 	@GetMapping("/me")
-	public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-		if (userDetails == null) {
+	public ResponseEntity<?> getCurrentUser(Principal principal) {
+		if (principal == null) {
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not logged in");
 		}
-		return ResponseEntity.ok(userDetails.getUsername());
+		return ResponseEntity.ok(principal.getName());
 	}
 
 	@PostMapping("/logout")
@@ -85,6 +121,17 @@ public class AuthController {
 		if (auth != null) {
 			new SecurityContextLogoutHandler().logout(request, response, auth);
 		}
+		// 토큰 자체는 만료 전까지 유효하므로 브라우저의 쿠키만 지운다
+		response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie("", Duration.ZERO).toString());
 		return ResponseEntity.ok("로그아웃 성공");
 	}
+
+	private static ResponseCookie tokenCookie(String token, Duration maxAge) {
+		return ResponseCookie.from(TokenAuthenticationFilter.TOKEN_COOKIE, token)
+			.httpOnly(true)
+			.sameSite("Lax")
+			.path("/")
+			.maxAge(maxAge)
+			.build();
+	}
 }
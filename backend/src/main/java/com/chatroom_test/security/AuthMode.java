@@ -0,0 +1,22 @@
+package com.chatroom_test.security;
+
+import java.util.Locale;
+
+// 로그인 상태를 유지하는 방식 (security.auth.mode)
+// 필터 체인, 로그인 API, STOMP CONNECT 인증, 토큰 키 검사가 모두 이 해석을 공유해 설정 표기와 관계없이 같은 모드로 동작한다
+public enum AuthMode {
+
+	// 로그인 시 HTTP 세션에 인증 저장
+	SESSION,
+	// 서명 토큰만 사용하고 세션을 만들지 않음
+	TOKEN;
+
+	// 대소문자 구분 없이 허용, 알 수 없는 값이면 기동 시 실패
+	public static AuthMode parse(String value) {
+		return valueOf(value.trim().toUpperCase(Locale.ROOT));
+	}
+
+	public static boolean isToken(String value) {
+		return parse(value) == TOKEN;
+	}
+}
@@ -3,6 +3,7 @@ package com.chatroom_test.security;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,6 +15,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,16 +29,25 @@ public class SecurityConfig {
 	@Autowired
 	private CustomUserDetailsService userDetailsService;
 
+	@Autowired
+	private TokenService tokenService;
+
+	// session: 로그인 시 HTTP 세션에 인증 저장 (기존 방식), token: 서명 토큰만 사용하고 세션을 만들지 않음
+	@Value("${security.auth.mode:session}")
+	private String authMode;
+
+	// BCrypt 비용(4~31, 1 올릴 때마다 해시 시간 2배), 기존 해시는 로그인 시 새 비용으로 다시 저장된다
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+		return new BCryptPasswordEncoder(strength);
 	}
 
 	@Bean
-	public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+	public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder)
+		throws Exception {
 		// 먼저 Builder 객체를 받아온 뒤 체이닝을 마치고 build()
 		AuthenticationManagerBuilder builder = http.getSharedObject(AuthenticationManagerBuilder.class);
-		builder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+		builder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
 
 		return builder.build();
 	}
@@ -54,18 +65,27 @@ public class SecurityConfig {
 				.requestMatchers("/h2-console/**").permitAll()
 				// 회원가입, 로그인, me API는 누구나 접근 가능
 				.requestMatchers("/api/auth/**").permitAll()
+				// 메시지 여러 건 전송은 인증된 사용자 이름으로만 보낼 수 있다
+				.requestMatchers("/api/chat/messages/**").authenticated()
 				// WebSocket, 채팅 REST API 등도 필요하면 열어줌
-				.requestMatchers("/ws-chat/**", "/api/chat/**").permitAll()
+				.requestMatchers("/ws-chat/**", "/ws-chat-native", "/api/chat/**").permitAll()
 				// 그 외는 인증 필요
 				.anyRequest().authenticated())
 			// 폼 로그인 안 쓰고, 완전 REST 방식
 			.formLogin(AbstractHttpConfigurer::disable)
-			// 세션 정책: 인증 성공 시 세션 생성
-			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED));
+			// 토큰이 있으면 두 모드 모두 로컬에서 서명만 확인해 인증
+			.addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+			// 세션 정책: session 모드는 인증 성공 시 세션 생성, token 모드는 세션을 만들지도 읽지도 않음
+			.sessionManagement(session -> session.sessionCreationPolicy(
+				isTokenMode() ? SessionCreationPolicy.STATELESS : SessionCreationPolicy.IF_REQUIRED));
 
 		return http.build();
 	}
 
+	boolean isTokenMode() {
+		return AuthMode.isToken(authMode);
+	}
+
 	@Bean
 	public CorsConfigurationSource corsConfigurationSource() {
 		CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,54 @@
+package com.chatroom_test.security;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// REST 요청의 토큰(Authorization: Bearer 또는 로그인 시 받은 쿠키)을 로컬에서 검증해 인증 정보를 설정
+// 세션 저장소나 DB 조회 없이 서명만 확인한다
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+	static final String BEARER_PREFIX = "Bearer ";
+	public static final String TOKEN_COOKIE = "chat_token";
+
+	private final TokenService tokenService;
+
+	public TokenAuthenticationFilter(TokenService tokenService) {
+		this.tokenService = tokenService;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+		throws ServletException, IOException {
+		String username = tokenService.verify(resolveToken(request));
+		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+			SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(username, null, Collections.emptyList()));
+		}
+		chain.doFilter(request, response);
+	}
+
+	private static String resolveToken(HttpServletRequest request) {
+		String token = bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+		if (token != null) {
+			return token;
+		}
+		Cookie cookie = WebUtils.getCookie(request, TOKEN_COOKIE);
+		return cookie != null ? cookie.getValue() : null;
+	}
+
+	static String bearerToken(String header) {
+		return header != null && header.startsWith(BEARER_PREFIX) ? header.substring(BEARER_PREFIX.length()) : null;
+	}
+}
@@ -0,0 +1,52 @@
+package com.chatroom_test.security;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+// STOMP CONNECT 프레임의 Authorization 헤더 토큰을 검증해 세션 사용자로 설정
+// (이후 같은 세션의 모든 프레임에 이 사용자가 붙는다, PresenceChannelInterceptor보다 먼저 등록)
+// security.auth.mode=token 이면 토큰도 handshake 인증도 없는 CONNECT는 거부한다
+@Component
+public class TokenChannelInterceptor implements ChannelInterceptor {
+
+	private final TokenService tokenService;
+	private final boolean tokenRequired;
+
+	public TokenChannelInterceptor(TokenService tokenService,
+		@Value("${security.auth.mode:session}") String authMode) {
+		this.tokenService = tokenService;
+		this.tokenRequired = AuthMode.isToken(authMode);
+	}
+
+	@Override
+	public Message<?> preSend(Message<?> message, MessageChannel channel) {
+		StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+		if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+			return message;
+		}
+
+		String token = TokenAuthenticationFilter.bearerToken(accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION));
+		if (token != null) {
+			String username = tokenService.verify(token);
+			if (username == null) {
+				throw new MessagingException(message, "유효하지 않은 토큰입니다.");
+			}
+			accessor.setUser(UsernamePasswordAuthenticationToken.authenticated(username, null,
+				Collections.emptyList()));
+		} else if (tokenRequired && accessor.getUser() == null) {
+			throw new MessagingException(message, "인증 토큰이 필요합니다.");
+		}
+		return message;
+	}
+}
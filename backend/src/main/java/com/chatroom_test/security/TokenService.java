@@ -0,0 +1,110 @@
+package com.chatroom_test.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// 서명된 인증 토큰 발급/검증 (서버에 세션을 두지 않고 각 노드가 비밀키만으로 검증)
+// 형식: base64url(username).만료 epoch second.base64url(HMAC-SHA256(앞 두 부분))
+@Component
+public class TokenService {
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+	// 서명 키 최소 길이 (HMAC-SHA256 출력 길이)
+	static final int MIN_KEY_BYTES = 32;
+
+	private final Mac prototype;
+	private final Duration ttl;
+	private final Clock clock;
+
+	public TokenService(@Value("${security.token.secret:}") String secret,
+		@Value("${security.token.ttl:12h}") Duration ttl,
+		@Value("${security.auth.mode:session}") String authMode) {
+		this(secret, ttl, authMode, Clock.systemUTC());
+	}
+
+	TokenService(String secret, Duration ttl, String authMode, Clock clock) {
+		this.ttl = ttl;
+		this.clock = clock;
+		byte[] key;
+		if (secret == null || secret.isBlank()) {
+			// token 모드는 노드마다 키가 다르면 다른 노드에서 발급한 토큰을 거부하므로 랜덤 키로 기동하지 않는다
+			if (AuthMode.isToken(authMode)) {
+				throw new IllegalStateException("security.auth.mode=token 이면 security.token.secret 설정이 필요합니다.");
+			}
+			System.err.println("security.token.secret is not set, using a random key (tokens are valid on this node only)");
+			key = new byte[MIN_KEY_BYTES];
+			new SecureRandom().nextBytes(key);
+		} else {
+			key = secret.getBytes(StandardCharsets.UTF_8);
+			// HMAC-SHA256 키는 출력 길이(32바이트)보다 짧으면 추측하기 쉬워진다
+			if (key.length < MIN_KEY_BYTES) {
+				throw new IllegalStateException("security.token.secret 은 " + MIN_KEY_BYTES + "바이트 이상이어야 합니다.");
+			}
+		}
+		try {
+			this.prototype = Mac.getInstance(ALGORITHM);
+			this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("토큰 서명 키를 초기화할 수 없습니다.", e);
+		}
+	}
+
+	public String issue(String username) {
+		long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+		String body = ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8)) + "." + expiresAt;
+		return body + "." + ENCODER.encodeToString(sign(body));
+	}
+
+	// 서명이 맞고 만료 전이면 username, 아니면 null
+	public String verify(String token) {
+		if (token == null) {
+			return null;
+		}
+		int signatureStart = token.lastIndexOf('.');
+		int expiresStart = token.lastIndexOf('.', signatureStart - 1);
+		if (signatureStart < 0 || expiresStart < 0) {
+			return null;
+		}
+		String body = token.substring(0, signatureStart);
+		try {
+			if (!MessageDigest.isEqual(sign(body), DECODER.decode(token.substring(signatureStart + 1)))) {
+				return null;
+			}
+			long expiresAt = Long.parseLong(token.substring(expiresStart + 1, signatureStart));
+			if (clock.instant().getEpochSecond() >= expiresAt) {
+				return null;
+			}
+			return new String(DECODER.decode(token.substring(0, expiresStart)), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			// base64 / 숫자 형식이 잘못된 토큰
+			return null;
+		}
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	private byte[] sign(String body) {
+		try {
+			// Mac은 스레드 안전하지 않으므로 초기화된 인스턴스를 복제해서 사용
+			Mac mac = (Mac)prototype.clone();
+			return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -7,18 +7,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.chatroom_test.user.repository.UserRepository;
+import com.chatroom_test.user.service.UserLookupService;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
 	@Autowired
-	private UserRepository userRepository;
+	private UserLookupService userLookupService;
 
+	// 입력 중에 반복 호출되므로 Bloom filter / 캐시로 대부분 DB 조회 없이 응답
 	@GetMapping("/exists")
 	public ResponseEntity<Boolean> userExists(@RequestParam String username) {
-		boolean exists = userRepository.findByUsername(username).isPresent();
+		boolean exists = userLookupService.exists(username);
 		return ResponseEntity.ok(exists);
 	}
 }
@@ -2,9 +2,15 @@ package com.chatroom_test.user.repository;
 
 import com.chatroom_test.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // username Bloom filter 구성용 (엔티티 전체를 읽지 않는다)
+    @Query("select u.username from User u")
+    List<String> findAllUsernames();
 }
@@ -4,6 +4,7 @@ import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,17 +13,34 @@ import com.chatroom_test.user.entity.User;
 import com.chatroom_test.user.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+	@Autowired
+	private UserLookupService userLookupService;
 
 	@Autowired
 	private UserRepository userRepository;
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userRepository.findByUsername(username)
+		// 캐시를 거쳐 조회 (매 인증마다 DB를 조회하지 않음, Bloom filter는 쓰지 않는다)
+		User user = userLookupService.findByUsername(username)
 			.orElseThrow(() -> new UsernameNotFoundException("User not found"));
 		// 권한은 필요에 따라 추가 가능
 		return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
 			Collections.emptyList());
 	}
+
+	// security.bcrypt.strength를 올리면 로그인 성공 시 이전 비용으로 만든 해시를 새 비용으로 다시 저장
+	@Override
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+		User user = userRepository.findByUsername(userDetails.getUsername())
+			.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+		user.setPassword(newPassword);
+		userRepository.save(user);
+		userLookupService.invalidate(user.getUsername());
+		return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+			.password(newPassword)
+			.build();
+	}
 }
@@ -0,0 +1,165 @@
+package com.chatroom_test.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.chatroom_test.user.entity.User;
+import com.chatroom_test.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// 인증/사용자 확인 경로의 DB 조회를 줄이기 위한 사용자 조회 계층
+// - 조회한 사용자는 크기 + TTL 제한 로컬 캐시에 보관 (가입/비밀번호 변경 시 무효화)
+// - 존재 여부 확인(exists)은 전체 username으로 만든 Bloom filter가 "없음"이라고 하면 DB를 조회하지 않는다 (오탐 시에만 DB 조회)
+//   인증 경로(findByUsername)는 filter를 쓰지 않고 캐시 -> DB로 조회 (다른 노드의 가입 알림을 놓쳐도 로그인이 막히지 않도록)
+// - chat.broker.mode=redis 이면 가입/변경을 Redis pub/sub으로 다른 노드에도 알리고, filter는 주기적으로 DB에서 다시 만든다
+@Service
+public class UserLookupService {
+
+	static final String USER_CHANGED_CHANNEL = "user:changed";
+
+	private final UserRepository userRepository;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final Cache<String, User> cache;
+	private final long expectedInsertions;
+	private final double falsePositiveRate;
+	private final boolean relayEnabled;
+	private final Counter bloomNegatives;
+
+	// 아직 만들기 전이면 null (모든 username을 "있을 수 있음"으로 처리)
+	private volatile BloomFilter<String> usernames;
+	// filter를 다시 만드는 동안 가입한 username (새 filter에 옮겨 담는다)
+	private Set<String> addedDuringRebuild;
+	private final Object filterLock = new Object();
+
+	public UserLookupService(UserRepository userRepository,
+		StringRedisTemplate stringRedisTemplate,
+		MeterRegistry meterRegistry,
+		ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+		@Value("${user.cache.maximum-size:10000}") long maximumSize,
+		@Value("${user.cache.expire-after-write:10m}") Duration expireAfterWrite,
+		@Value("${user.bloom.expected-insertions:1000000}") long expectedInsertions,
+		@Value("${user.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+		this.userRepository = userRepository;
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(expireAfterWrite)
+			.recordStats()
+			.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+		this.bloomNegatives = Counter.builder("users.bloom.negative")
+			.description("Bloom filter로 DB 조회 없이 없음을 확인한 횟수")
+			.register(meterRegistry);
+
+		// Redis broker relay를 쓰는 경우에만 listener container가 있다
+		RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+		this.relayEnabled = container != null;
+		if (container != null) {
+			container.addMessageListener((message, pattern) ->
+					applyChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+				new ChannelTopic(USER_CHANGED_CHANNEL));
+		}
+	}
+
+	public Optional<User> findByUsername(String username) {
+		User cached = cache.getIfPresent(username);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
+		// DB 조회는 캐시의 compute 밖에서 수행 (ChatRoomCache와 같은 이유)
+		Optional<User> user = userRepository.findByUsername(username);
+		user.ifPresent(found -> cache.put(username, found));
+		return user;
+	}
+
+	public boolean exists(String username) {
+		if (cache.getIfPresent(username) != null) {
+			return true;
+		}
+		if (!mightExist(username)) {
+			bloomNegatives.increment();
+			return false;
+		}
+		return findByUsername(username).isPresent();
+	}
+
+	// 가입 직후 호출 (DB 커밋 이후에 filter에 넣어야 재구성 중에도 빠지지 않는다)
+	public void registered(String username) {
+		applyChange(username);
+		publish(username);
+	}
+
+	// 비밀번호 등 사용자 정보가 바뀌었을 때 호출
+	public void invalidate(String username) {
+		cache.invalidate(username);
+		publish(username);
+	}
+
+	// 기동 직후 한 번, 이후 주기적으로 DB의 전체 username으로 filter를 다시 만든다
+	// (다른 노드의 가입 알림을 놓쳤거나 사용자가 예상보다 많아져 오탐률이 올라간 경우 복구)
+	@Scheduled(fixedDelayString = "${user.bloom.rebuild-interval-ms:3600000}")
+	public void rebuildFilter() {
+		synchronized (filterLock) {
+			addedDuringRebuild = new HashSet<>();
+		}
+		List<String> all = userRepository.findAllUsernames();
+		BloomFilter<String> rebuilt = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+			Math.max(expectedInsertions, all.size() * 2L), falsePositiveRate);
+		all.forEach(rebuilt::put);
+		synchronized (filterLock) {
+			addedDuringRebuild.forEach(rebuilt::put);
+			addedDuringRebuild = null;
+			usernames = rebuilt;
+		}
+	}
+
+	boolean mightExist(String username) {
+		BloomFilter<String> filter = usernames;
+		return filter == null || filter.mightContain(username);
+	}
+
+	private void applyChange(String username) {
+		cache.invalidate(username);
+		synchronized (filterLock) {
+			if (usernames != null) {
+				usernames.put(username);
+			}
+			if (addedDuringRebuild != null) {
+				addedDuringRebuild.add(username);
+			}
+		}
+	}
+
+	private void publish(String username) {
+		if (!relayEnabled) {
+			return;
+		}
+		try {
+			stringRedisTemplate.convertAndSend(USER_CHANGED_CHANNEL, username);
+		} catch (Exception e) {
+			// 다른 노드는 다음 filter 재구성/캐시 만료 때 반영된다
+			System.err.println("Failed to publish user change for " + username + ": " + e.getMessage());
+		}
+	}
+}
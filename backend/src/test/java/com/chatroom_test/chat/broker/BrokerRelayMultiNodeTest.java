@@ -0,0 +1,132 @@
+package com.chatroom_test.chat.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+// Redis 대신 in-memory relay로 두 노드를 연결해 /topic 메시지가 노드 간에 한 번씩만 전달되는지 확인
+class BrokerRelayMultiNodeTest {
+
+	private InMemoryBrokerRelay relay;
+	private Node nodeA;
+	private Node nodeB;
+
+	@BeforeEach
+	void setUp() {
+		relay = new InMemoryBrokerRelay();
+		nodeA = new Node("node-a", relay);
+		nodeB = new Node("node-b", relay);
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodeA.stop();
+		nodeB.stop();
+	}
+
+	@Test
+	void messageSentOnOneNodeReachesSubscribersOnEveryNode() {
+		nodeA.subscribe("session-a", "/topic/chat/alice:bob");
+		nodeB.subscribe("session-b", "/topic/chat/alice:bob");
+
+		nodeA.template.convertAndSend("/topic/chat/alice:bob", "hello");
+
+		assertThat(nodeA.deliveredPayloads()).containsExactly("\"hello\"");
+		assertThat(nodeB.deliveredPayloads()).containsExactly("\"hello\"");
+		assertThat(relay.published).hasSize(1);
+	}
+
+	@Test
+	void relayedMessageIsNotPublishedAgain() {
+		nodeB.subscribe("session-b", "/topic/unreadCount/bob");
+
+		nodeA.template.convertAndSend("/topic/unreadCount/bob", "1");
+		nodeB.template.convertAndSend("/topic/unreadCount/bob", "2");
+
+		assertThat(nodeB.deliveredPayloads()).containsExactly("\"1\"", "\"2\"");
+		assertThat(relay.published).extracting(BrokerEnvelope::origin).containsExactly("node-a", "node-b");
+	}
+
+	@Test
+	void nonTopicDestinationsStayLocal() {
+		nodeA.template.convertAndSend("/queue/private", "local");
+
+		assertThat(relay.published).isEmpty();
+	}
+
+	// Redis pub/sub stand-in: 발행된 메시지를 모든 구독자에게 동기적으로 전달
+	static class InMemoryBrokerRelay implements BrokerRelay {
+		private final List<Consumer<BrokerEnvelope>> listeners = new CopyOnWriteArrayList<>();
+		private final List<BrokerEnvelope> published = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(BrokerEnvelope envelope) {
+			published.add(envelope);
+			listeners.forEach(listener -> listener.accept(envelope));
+		}
+
+		@Override
+		public void subscribe(Consumer<BrokerEnvelope> listener) {
+			listeners.add(listener);
+		}
+	}
+
+	// SimpleBroker + brokerChannel + relay interceptor/listener로 구성된 단일 서버 노드
+	static class Node {
+		private final ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+		private final ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+		private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+		private final SimpleBrokerMessageHandler broker;
+		private final SimpMessagingTemplate template;
+		private final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+
+		Node(String nodeId, BrokerRelay relay) {
+			broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+			brokerChannel.addInterceptor(new BrokerRelayInterceptor(relay, nodeId, "/topic/"));
+			new BrokerRelayListener(relay, brokerChannel, nodeId);
+			clientOutbound.subscribe(delivered::add);
+			broker.start();
+
+			template = new SimpMessagingTemplate(brokerChannel);
+			template.setMessageConverter(new MappingJackson2MessageConverter());
+		}
+
+		void subscribe(String sessionId, String destination) {
+			SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+			connect.setSessionId(sessionId);
+			clientInbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+			SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+			subscribe.setSessionId(sessionId);
+			subscribe.setSubscriptionId("sub-" + destination);
+			subscribe.setDestination(destination);
+			clientInbound.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+		}
+
+		List<String> deliveredPayloads() {
+			return delivered.stream()
+				.filter(message -> SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE)
+				.map(message -> new String((byte[])message.getPayload(), StandardCharsets.UTF_8))
+				.toList();
+		}
+
+		void stop() {
+			broker.stop();
+		}
+	}
+}
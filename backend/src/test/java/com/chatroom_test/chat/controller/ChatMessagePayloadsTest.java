@@ -0,0 +1,48 @@
+package com.chatroom_test.chat.controller;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+class ChatMessagePayloadsTest {
+
+	@Test
+	void textOrFileMessageIsAccepted() {
+		ChatMessage file = message("bob", null);
+		file.setFileUrl("files/abc");
+
+		assertThatCode(() -> ChatMessagePayloads.validateAll(List.of(message("bob", "hi"), file)))
+			.doesNotThrowAnyException();
+	}
+
+	@Test
+	void missingReceiverIsRejected() {
+		assertThatThrownBy(() -> ChatMessagePayloads.validateAll(List.of(message("bob", "hi"), message(null, "hi"))))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ChatMessagePayloads.validate(message(" ", "hi")))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void emptyMessageIsRejected() {
+		assertThatThrownBy(() -> ChatMessagePayloads.validate(message("bob", "")))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ChatMessagePayloads.validateAll(Arrays.asList(message("bob", "hi"), null)))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ChatMessagePayloads.validateAll(List.of()))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static ChatMessage message(String receiver, String content) {
+		ChatMessage message = new ChatMessage();
+		message.setReceiver(receiver);
+		message.setContent(content);
+		return message;
+	}
+}
@@ -0,0 +1,43 @@
+package com.chatroom_test.chat.controller;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+class ClientMessageIdsTest {
+
+	@Test
+	void missingIdIsLeftToServer() {
+		assertThatCode(() -> ClientMessageIds.validate(message(null))).doesNotThrowAnyException();
+		assertThatCode(() -> ClientMessageIds.validate(message(""))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void uuidIsAccepted() {
+		assertThatCode(() -> ClientMessageIds.validate(message("0191f5d2-7c3a-7b4e-9a1d-2f6c8e0b5a47")))
+			.doesNotThrowAnyException();
+	}
+
+	@Test
+	void overlongIdIsRejected() {
+		assertThatThrownBy(() -> ClientMessageIds.validate(message("a".repeat(ClientMessageIds.MAX_LENGTH + 1))))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void idWithKeySeparatorIsRejected() {
+		assertThatThrownBy(() -> ClientMessageIds.validate(message("room:alice:1")))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ClientMessageIds.validate(message(" ")))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static ChatMessage message(String messageId) {
+		ChatMessage message = new ChatMessage();
+		message.setMessageId(messageId);
+		return message;
+	}
+}
@@ -0,0 +1,213 @@
+package com.chatroom_test.chat.outbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 첫 프레임 전송을 막아 둔 채 대기열을 채워 느린 클라이언트를 흉내
+class SessionOutboundQueuesTest {
+
+	private static final int MAX_QUEUE_SIZE = 4;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final MessageChannel outbound = (message, timeout) -> true;
+	private final SlowClient client = new SlowClient();
+	private final CountDownLatch closed = new CountDownLatch(1);
+	private SessionOutboundQueues queues;
+
+	@AfterEach
+	void tearDown() {
+		client.release.countDown();
+		queues.shutdown();
+	}
+
+	@Test
+	void oldestNonChatFramesAreDroppedFirst() throws Exception {
+		connect("drop-non-chat");
+		sendAndBlock("/topic/chat/r1", "chat0");
+		send("/topic/unreadCount/alice", "unread1");
+		send("/topic/chat/r1", "chat1");
+		send("/topic/unreadCount/alice", "unread2");
+		send("/topic/chat/r1", "chat2");
+
+		send("/topic/chat/r1", "chat3");
+		send("/topic/unreadCount/alice", "unread3");
+		client.release.countDown();
+
+		assertThat(client.awaitDelivered(5)).containsExactly("chat0", "chat1", "chat2", "chat3", "unread3");
+		assertThat(meterRegistry.get("chat.outbound.dropped").tag("reason", "non-chat").counter().count())
+			.isEqualTo(2);
+		assertThat(closed.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void chatIsNeverDroppedSilently() throws Exception {
+		connect("drop-non-chat");
+		sendAndBlock("/topic/chat/r1", "chat0");
+		for (int i = 1; i <= MAX_QUEUE_SIZE; i++) {
+			send("/topic/chat/r1", "chat" + i);
+		}
+
+		send("/topic/chat/r1", "overflow");
+
+		assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(queues.depth("s1")).isZero();
+		assertThat(meterRegistry.get("chat.outbound.disconnected").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void disconnectPolicyClosesSessionAtLimit() throws Exception {
+		connect("disconnect");
+		sendAndBlock("/topic/chat/r1", "chat0");
+		for (int i = 1; i <= MAX_QUEUE_SIZE; i++) {
+			send("/topic/unreadCount/alice", "unread" + i);
+		}
+
+		send("/topic/unreadCount/alice", "overflow");
+
+		assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void pausedSessionResumesAfterDrainingAndAsksForResync() throws Exception {
+		connect("pause");
+		sendAndBlock("/topic/chat/r1", "chat0");
+		for (int i = 1; i <= MAX_QUEUE_SIZE; i++) {
+			send("/topic/chat/r1", "chat" + i);
+		}
+		send("/topic/chat/r1", "skipped1");
+		send("/topic/chat/r1", "skipped2");
+		client.release.countDown();
+		client.awaitDelivered(6);
+
+		send("/topic/chat/r1", "after");
+
+		// 버린 메시지는 resync 안내로 대신하고, 그 뒤 메시지는 다시 그대로 전달
+		assertThat(client.awaitDelivered(7)).containsExactly("chat0", "chat1", "chat2", "chat3", "chat4",
+			"{\"type\":\"resync\",\"roomId\":\"r1\"}", "after");
+		assertThat(meterRegistry.get("chat.outbound.resync").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("chat.outbound.dropped").tag("reason", "paused").counter().count())
+			.isEqualTo(2);
+	}
+
+	@Test
+	void slowSessionGetsOwnDepthGauge() throws Exception {
+		connect("drop-non-chat");
+		sendAndBlock("/topic/chat/r1", "chat0");
+		send("/topic/chat/r1", "chat1");
+		send("/topic/chat/r1", "chat2");
+
+		assertThat(meterRegistry.get("chat.outbound.session.queue.depth").tag("session", "s1").gauge().value())
+			.isEqualTo(2);
+	}
+
+	@Test
+	void nonMessageFramesBypassQueue() throws Exception {
+		connect("drop-non-chat");
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+		accessor.setSessionId("s1");
+		Message<byte[]> connectAck = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+		assertThat(queues.preSend(connectAck, outbound)).isSameAs(connectAck);
+	}
+
+	private void connect(String policy) throws Exception {
+		queues = new SessionOutboundQueues(meterRegistry, MAX_QUEUE_SIZE, policy, 2);
+		queues.decorate(client).afterConnectionEstablished(session("s1"));
+	}
+
+	// 첫 프레임은 전송 스레드가 꺼내 간 뒤 release 전까지 막힌다
+	private void sendAndBlock(String destination, String payload) throws InterruptedException {
+		send(destination, payload);
+		assertThat(client.firstTaken.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private void send(String destination, String payload) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setSessionId("s1");
+		accessor.setDestination(destination);
+		assertThat(queues.preSend(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()), outbound))
+			.isNull();
+	}
+
+	private WebSocketSession session(String id) {
+		return (WebSocketSession)Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] {WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+				case "getId" -> id;
+				case "close" -> {
+					closed.countDown();
+					yield null;
+				}
+				default -> null;
+			});
+	}
+
+	// SubProtocolWebSocketHandler 대신 받은 프레임을 기록하는 핸들러
+	private static class SlowClient implements WebSocketHandler, MessageHandler {
+
+		private final CountDownLatch firstTaken = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			firstTaken.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			Object payload = message.getPayload();
+			delivered.add(payload instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : (String)payload);
+		}
+
+		List<String> awaitDelivered(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (delivered.size() < count && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			return delivered;
+		}
+
+		@Override
+		public void afterConnectionEstablished(WebSocketSession session) {
+		}
+
+		@Override
+		public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) {
+		}
+
+		@Override
+		public void handleTransportError(WebSocketSession session, Throwable exception) {
+		}
+
+		@Override
+		public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) {
+		}
+
+		@Override
+		public boolean supportsPartialMessages() {
+			return false;
+		}
+	}
+}
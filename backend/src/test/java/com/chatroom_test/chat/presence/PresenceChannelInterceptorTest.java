@@ -0,0 +1,96 @@
+package com.chatroom_test.chat.presence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.chatroom_test.chat.config.ChatNode;
+import com.chatroom_test.chat.dto.PresenceUpdate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PresenceChannelInterceptorTest {
+
+	private final List<Message<?>> published = new CopyOnWriteArrayList<>();
+	private final PresenceRegistry registry = new PresenceRegistry(template(), null, new ChatNode("node-a", "1", "simple"),
+		new SimpleMeterRegistry(), "simple");
+	private final PresenceChannelInterceptor interceptor = new PresenceChannelInterceptor(registry);
+	private final MessageChannel inbound = (message, timeout) -> true;
+
+	@Test
+	void connectWithUsernameHeaderMarksUserOnline() {
+		interceptor.preSend(connect("s1", "bob"), inbound);
+
+		assertThat(registry.isOnline("bob")).isTrue();
+		assertThat(presenceUpdates()).containsExactly(new PresenceUpdate("bob", true));
+	}
+
+	@Test
+	void personalTopicSubscriptionBindsAnonymousSession() {
+		interceptor.preSend(connect("s1", null), inbound);
+		interceptor.preSend(simp(SimpMessageType.SUBSCRIBE, "s1", "/topic/unreadCount/bob"), inbound);
+
+		assertThat(registry.isOnline("bob")).isTrue();
+	}
+
+	@Test
+	void userStaysOnlineUntilLastSessionDisconnects() {
+		interceptor.preSend(connect("s1", "bob"), inbound);
+		interceptor.preSend(connect("s2", "bob"), inbound);
+
+		interceptor.preSend(simp(SimpMessageType.DISCONNECT, "s1", null), inbound);
+		assertThat(registry.isOnline("bob")).isTrue();
+		assertThat(registry.getSessionCount("bob")).isEqualTo(1);
+
+		interceptor.preSend(simp(SimpMessageType.DISCONNECT, "s2", null), inbound);
+		// 연결 종료 시 DISCONNECT가 한 번 더 와도 상태는 한 번만 바뀐다
+		interceptor.preSend(simp(SimpMessageType.DISCONNECT, "s2", null), inbound);
+
+		assertThat(registry.isOnline("bob")).isFalse();
+		assertThat(presenceUpdates()).containsExactly(new PresenceUpdate("bob", true), new PresenceUpdate("bob", false));
+	}
+
+	@Test
+	void unknownUsersAreOffline() {
+		assertThat(registry.isOnline("nobody")).isFalse();
+		assertThat(PresenceChannelInterceptor.personalTopicOwner("/topic/chat/alice:bob")).isNull();
+	}
+
+	private Message<byte[]> connect(String sessionId, String username) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+		accessor.setSessionId(sessionId);
+		if (username != null) {
+			accessor.setNativeHeader(PresenceChannelInterceptor.USERNAME_HEADER, username);
+		}
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private Message<byte[]> simp(SimpMessageType type, String sessionId, String destination) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+		accessor.setSessionId(sessionId);
+		accessor.setDestination(destination);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private List<Object> presenceUpdates() {
+		return published.stream().<Object>map(Message::getPayload).toList();
+	}
+
+	private SimpMessagingTemplate template() {
+		SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> published.add(message));
+		template.setMessageConverter(new SimpleMessageConverter());
+		return template;
+	}
+}
@@ -0,0 +1,167 @@
+package com.chatroom_test.chat.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// 엔티티에서 생성한 스키마에 메시지 1,000,000건을 넣고 주요 조회가 인덱스를 타는지 H2 실행 계획으로 확인 (./gradlew loadTest)
+// 손으로 쓴 SQL이 아니라 repository 메서드를 실제로 호출해 Hibernate가 만든 SQL(StatementInspector로 수집)과
+// ChatMessageBatchRepository의 insert 문에 바인딩 값을 채워 EXPLAIN 한다
+@Tag("load")
+@DataJpaTest(properties = {
+	"spring.jpa.show-sql=false",
+	"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.chatroom_test.chat.repository.ChatQueryPlanTest$SqlCapture"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatQueryPlanTest {
+
+	private static final int ROOMS = 1_000;
+	private static final int MESSAGES = 1_000_000;
+	private static final String ROOM_ID = "client1:expert1";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ChatMessageRepository chatMessageRepository;
+
+	@Autowired
+	private ChatRoomRepository chatRoomRepository;
+
+	@BeforeAll
+	void generateData() {
+		// 방 i: client{i} <-> expert{i}, 메시지는 방마다 1,000건씩 번갈아 보낸 것으로 생성
+		jdbcTemplate.update("insert into chat_rooms (room_id, client, expert) "
+			+ "select 'client' || x || ':expert' || x, 'client' || x, 'expert' || x from system_range(1, ?)", ROOMS);
+		jdbcTemplate.update("insert into chat_messages "
+			+ "(id, message_id, sender, receiver, content, timestamp, file_url, chat_room_room_id) "
+			+ "select x, cast(x as varchar), "
+			+ "  case when mod(x, 2) = 0 then 'client' else 'expert' end || (mod(x, ?) + 1), "
+			+ "  case when mod(x, 2) = 0 then 'expert' else 'client' end || (mod(x, ?) + 1), "
+			+ "  'message ' || x, dateadd('SECOND', x, timestamp '2025-01-01 00:00:00'), null, "
+			+ "  'client' || (mod(x, ?) + 1) || ':expert' || (mod(x, ?) + 1) "
+			+ "from system_range(1, ?)", ROOMS, ROOMS, ROOMS, ROOMS, MESSAGES);
+		jdbcTemplate.execute("analyze");
+
+		assertThat(jdbcTemplate.queryForObject("select count(*) from chat_messages", Long.class))
+			.isEqualTo(MESSAGES);
+	}
+
+	@BeforeEach
+	void clearCapturedSql() {
+		SqlCapture.statements.clear();
+	}
+
+	@Test
+	void historyPageUsesRoomIdIndex() {
+		chatMessageRepository.findByChatRoomRoomIdAndIdLessThanOrderByIdDesc(ROOM_ID, 500_000L, PageRequest.of(0, 50));
+
+		assertUsesIndex(capturedSql(ROOM_ID, 500_000L, 50), "IDX_CHAT_MESSAGES_ROOM_ID");
+	}
+
+	@Test
+	void fullRoomHistoryUsesRoomIdIndex() {
+		chatMessageRepository.findByChatRoomRoomIdOrderByIdAsc(ROOM_ID);
+
+		assertUsesIndex(capturedSql(ROOM_ID), "IDX_CHAT_MESSAGES_ROOM_ID");
+	}
+
+	@Test
+	void unreadCountSinceLastReadUsesRoomTimestampIndex() {
+		LocalDateTime lastRead = LocalDateTime.of(2025, 1, 10, 0, 0);
+		chatMessageRepository.countUnreadMessages(ROOM_ID, lastRead, "client1");
+
+		assertUsesIndex(capturedSql(ROOM_ID, lastRead, "client1"), "IDX_CHAT_MESSAGES_ROOM_TIMESTAMP");
+	}
+
+	@Test
+	void duplicateCheckOnFlushUsesRoomSenderMessageIdUniqueIndex() {
+		String sql = bind(ChatMessageBatchRepository.INSERT_IF_ABSENT_SQL,
+			2_000_000L, "123456", "client1", "expert1", "hello", LocalDateTime.of(2025, 2, 1, 0, 0), null, null,
+			ROOM_ID, ROOM_ID, "client1", "123456");
+
+		assertUsesIndex(sql, "UK_CHAT_MESSAGES_ROOM_SENDER_MESSAGE_ID");
+	}
+
+	@Test
+	void membershipLookupUsesClientAndExpertIndexes() {
+		chatRoomRepository.findByMember("client7");
+
+		String plan = explain(capturedSql("client7", "client7"));
+
+		assertThat(plan).as(plan).contains("IDX_CHAT_ROOMS_CLIENT", "IDX_CHAT_ROOMS_EXPERT");
+		assertThat(plan).as(plan).doesNotContainIgnoringCase("tableScan");
+	}
+
+	private void assertUsesIndex(String sql, String indexName) {
+		String plan = explain(sql);
+
+		assertThat(plan).as(plan).contains(indexName);
+		assertThat(plan).as(plan).doesNotContainIgnoringCase("tableScan");
+	}
+
+	private String explain(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+	}
+
+	// repository 호출로 실행된 첫 SQL (연관 엔티티를 읽는 뒤따르는 조회는 제외)
+	private String capturedSql(Object... parameters) {
+		assertThat(SqlCapture.statements).isNotEmpty();
+		return bind(SqlCapture.statements.get(0), parameters);
+	}
+
+	// EXPLAIN은 바인딩 값이 있어야 선택도를 추정하므로 ? 자리에 순서대로 리터럴을 채운다
+	private static String bind(String sql, Object... parameters) {
+		StringBuilder bound = new StringBuilder();
+		int next = 0;
+		for (char c : sql.toCharArray()) {
+			if (c != '?') {
+				bound.append(c);
+				continue;
+			}
+			assertThat(next).as("bind parameters for " + sql).isLessThan(parameters.length);
+			bound.append(literal(parameters[next++]));
+		}
+		assertThat(next).as("bind parameters for " + sql).isEqualTo(parameters.length);
+		return bound.toString();
+	}
+
+	private static String literal(Object value) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof Number) {
+			return value.toString();
+		}
+		if (value instanceof LocalDateTime time) {
+			return "timestamp '" + time.toString().replace('T', ' ') + "'";
+		}
+		return "'" + value.toString().replace("'", "''") + "'";
+	}
+
+	// Hibernate가 실행하는 SQL을 모아 두는 inspector (SessionFactory가 클래스 이름으로 생성)
+	public static class SqlCapture implements StatementInspector {
+
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.chatroom_test.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Redis/DB 없이 방별 묶음이 어떻게 ChatService로 넘어가는지만 확인
+class ChatSendPipelineBatchTest {
+
+	private final RecordingChatService chatService = new RecordingChatService();
+	private final List<Object> sentFrames = new CopyOnWriteArrayList<>();
+	private final SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+		sentFrames.add(message.getPayload());
+		return true;
+	});
+	private ChatSendPipeline pipeline;
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		chatService.release.countDown();
+		pipeline.shutdown();
+	}
+
+	@Test
+	void messagesAreGroupedByRoomInRequestOrder() throws Exception {
+		pipeline = new ChatSendPipeline(chatService, messagingTemplate, new SimpleMeterRegistry(), 100, 10);
+		chatService.release.countDown();
+
+		int accepted = pipeline.submitAll(List.of(
+			message("alice", "bob", "1"),
+			message("carol", "alice", "2"),
+			message("bob", "alice", "3"),
+			message("alice", "carol", "4"),
+			message("alice", "bob", "5")));
+		pipeline.shutdown();
+
+		assertThat(accepted).isEqualTo(5);
+		assertThat(chatService.calls).containsExactlyInAnyOrder(List.of("1", "3", "5"), List.of("2", "4"));
+	}
+
+	@Test
+	void singleMessageRoomUsesSingleSendPath() throws Exception {
+		pipeline = new ChatSendPipeline(chatService, messagingTemplate, new SimpleMeterRegistry(), 100, 10);
+		chatService.release.countDown();
+
+		pipeline.submitAll(List.of(message("alice", "bob", "1")));
+		pipeline.shutdown();
+
+		assertThat(chatService.calls).isEmpty();
+		assertThat(chatService.singleSends).containsExactly("1");
+	}
+
+	@Test
+	void roomOverCapacityIsRejectedAsWhole() throws Exception {
+		pipeline = new ChatSendPipeline(chatService, messagingTemplate, new SimpleMeterRegistry(), 3, 10);
+		// 첫 묶음 처리를 막아 두고 대기열을 채운다
+		pipeline.submitAll(List.of(message("alice", "bob", "1"), message("alice", "bob", "2")));
+		assertThat(chatService.started.await(5, TimeUnit.SECONDS)).isTrue();
+		pipeline.submitAll(List.of(message("alice", "bob", "3"), message("alice", "bob", "4")));
+
+		int accepted = pipeline.submitAll(List.of(
+			message("alice", "bob", "5"),
+			message("alice", "bob", "6"),
+			message("carol", "dave", "7"),
+			message("carol", "dave", "8")));
+
+		assertThat(accepted).isEqualTo(2);
+		assertThat(sentFrames).hasSize(1);
+	}
+
+	@Test
+	void oversizedBatchIsRefused() {
+		pipeline = new ChatSendPipeline(chatService, messagingTemplate, new SimpleMeterRegistry(), 100, 2);
+		List<ChatMessage> messages = List.of(message("alice", "bob", "1"), message("alice", "bob", "2"),
+			message("alice", "bob", "3"));
+
+		assertThatThrownBy(() -> pipeline.submitAll(messages)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static ChatMessage message(String sender, String receiver, String content) {
+		ChatMessage message = new ChatMessage();
+		message.setSender(sender);
+		message.setReceiver(receiver);
+		message.setContent(content);
+		return message;
+	}
+
+	private static class RecordingChatService extends ChatService {
+
+		private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+		private final List<String> singleSends = new CopyOnWriteArrayList<>();
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public void sendMessage(ChatMessage chatMessage) {
+			singleSends.add(chatMessage.getContent());
+		}
+
+		@Override
+		public void sendMessages(List<ChatMessage> chatMessages) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			List<String> contents = new ArrayList<>();
+			chatMessages.forEach(chatMessage -> contents.add(chatMessage.getContent()));
+			calls.add(contents);
+		}
+	}
+}
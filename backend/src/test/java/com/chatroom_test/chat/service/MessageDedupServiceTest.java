@@ -0,0 +1,81 @@
+package com.chatroom_test.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Redis SET NX/DEL 대신 메모리 Set으로 선점/해제 흐름만 확인
+class MessageDedupServiceTest {
+
+	private static final String ROOM_ID = "alice:bob";
+
+	private final InMemoryDedupService dedupService = new InMemoryDedupService();
+
+	@Test
+	void retryIsAcceptedAfterFailedSend() {
+		ChatMessage message = message("m-1");
+		assertThat(dedupService.firstSeen(ROOM_ID, message)).isTrue();
+
+		assertThatThrownBy(() -> dedupService.releaseOnFailure(ROOM_ID, List.of(message), () -> {
+			throw new IllegalStateException("redis down");
+		})).isInstanceOf(IllegalStateException.class);
+
+		ChatMessage retry = message("m-1");
+		assertThat(dedupService.firstSeen(ROOM_ID, retry)).isTrue();
+		assertThat(dedupService.releaseOnFailure(ROOM_ID, List.of(retry), () -> "sent")).isEqualTo("sent");
+		assertThat(dedupService.firstSeen(ROOM_ID, message("m-1"))).isFalse();
+	}
+
+	@Test
+	void failedBatchReleasesOnlyItsOwnClaims() {
+		assertThat(dedupService.firstSeen(ROOM_ID, message("m-1"))).isTrue();
+		List<ChatMessage> batch = dedupService.filterFirstSeen(ROOM_ID,
+			List.of(message("m-1"), message("m-2"), message(null)));
+		assertThat(batch).extracting(ChatMessage::getMessageId).containsExactly("m-2", null);
+
+		assertThatThrownBy(() -> dedupService.releaseOnFailure(ROOM_ID, batch, () -> {
+			throw new IllegalStateException("wal full");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(dedupService.filterFirstSeen(ROOM_ID, List.of(message("m-1"), message("m-2"))))
+			.extracting(ChatMessage::getMessageId).containsExactly("m-2");
+	}
+
+	private static ChatMessage message(String messageId) {
+		ChatMessage message = new ChatMessage();
+		message.setSender("alice");
+		message.setReceiver("bob");
+		message.setMessageId(messageId);
+		return message;
+	}
+
+	private static class InMemoryDedupService extends MessageDedupService {
+
+		private final Set<String> keys = new HashSet<>();
+
+		InMemoryDedupService() {
+			super(new StringRedisTemplate(), new SimpleMeterRegistry(), Duration.ofMinutes(10));
+		}
+
+		@Override
+		List<Boolean> claim(List<String> keys) {
+			return keys.stream().map(this.keys::add).toList();
+		}
+
+		@Override
+		void release(List<String> keys) {
+			keys.forEach(this.keys::remove);
+		}
+	}
+}
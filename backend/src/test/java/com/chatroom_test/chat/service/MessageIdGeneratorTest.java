@@ -0,0 +1,92 @@
+package com.chatroom_test.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class MessageIdGeneratorTest {
+
+	private static final int THREADS = 64;
+	private static final int IDS_PER_THREAD = 20_000;
+
+	@Test
+	void idsAreUniqueAndIncreasingPerThreadUnderContention() throws Exception {
+		MessageIdGenerator generator = new MessageIdGenerator(7, System::currentTimeMillis);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<long[]>> results = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					long[] ids = new long[IDS_PER_THREAD];
+					for (int i = 0; i < IDS_PER_THREAD; i++) {
+						ids[i] = generator.nextId();
+					}
+					return ids;
+				}));
+			}
+			start.countDown();
+
+			Set<Long> seen = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+			for (Future<long[]> result : results) {
+				long[] ids = result.get();
+				for (int i = 0; i < ids.length; i++) {
+					// 한 스레드가 받은 id는 항상 이전 id보다 크다
+					if (i > 0) {
+						assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+					}
+					assertThat(MessageIdGenerator.workerIdOf(ids[i])).isEqualTo(7);
+					seen.add(ids[i]);
+				}
+			}
+			assertThat(seen).hasSize(THREADS * IDS_PER_THREAD);
+		}
+	}
+
+	@Test
+	void sequenceOverflowAndClockRollbackStayMonotonic() {
+		AtomicLong now = new AtomicLong(MessageIdGenerator.EPOCH_MILLIS + 1_000);
+		MessageIdGenerator generator = new MessageIdGenerator(1, now::get);
+
+		long previous = generator.nextId();
+		// 같은 millis 안에서 sequence(4096)를 넘겨도 계속 증가
+		for (int i = 0; i < 10_000; i++) {
+			long id = generator.nextId();
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+		// 시계가 뒤로 가도 이전 id보다 작은 값을 내지 않는다
+		now.addAndGet(-500);
+		assertThat(generator.nextId()).isGreaterThan(previous);
+	}
+
+	@Test
+	void idEncodesTimestampAndWorker() {
+		long millis = MessageIdGenerator.EPOCH_MILLIS + 123_456_789L;
+		MessageIdGenerator generator = new MessageIdGenerator(1023, () -> millis);
+
+		long id = generator.nextId();
+
+		assertThat(id).isPositive();
+		assertThat(MessageIdGenerator.timestampOf(id)).isEqualTo(millis);
+		assertThat(MessageIdGenerator.workerIdOf(id)).isEqualTo(1023);
+	}
+
+	@Test
+	void rejectsWorkerIdOutOfRange() {
+		assertThatThrownBy(() -> new MessageIdGenerator(1024, System::currentTimeMillis))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+}
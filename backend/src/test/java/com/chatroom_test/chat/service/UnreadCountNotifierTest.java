@@ -0,0 +1,85 @@
+package com.chatroom_test.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.chatroom_test.chat.dto.UnreadCountBatch;
+import com.chatroom_test.chat.dto.UnreadCountUpdate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UnreadCountNotifierTest {
+
+	private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SimpMessagingTemplate template = template();
+
+	@Test
+	void burstForOneUserIsSentAsSingleFrameWithLatestCounts() throws Exception {
+		UnreadCountNotifier notifier = new UnreadCountNotifier(template, meterRegistry, 100);
+
+		for (int i = 1; i <= 50; i++) {
+			notifier.push("bob", "alice:bob", i);
+		}
+		notifier.push("bob", "bob:carol", 3);
+		awaitFrames(1);
+		Thread.sleep(150);
+
+		assertThat(sent).hasSize(1);
+		assertThat(SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()))
+			.isEqualTo("/topic/unreadCount/bob");
+		UnreadCountBatch batch = (UnreadCountBatch)sent.get(0).getPayload();
+		assertThat(batch.updates()).extracting(UnreadCountUpdate::getRoomId, UnreadCountUpdate::getUnreadCount)
+			.containsExactly(
+				tuple("alice:bob", 50L),
+				tuple("bob:carol", 3L));
+		assertThat(meterRegistry.get("chat.unread.frames.saved").counter().count()).isEqualTo(50);
+	}
+
+	@Test
+	void usersAreCoalescedIndependently() throws Exception {
+		UnreadCountNotifier notifier = new UnreadCountNotifier(template, meterRegistry, 50);
+
+		notifier.push("bob", "alice:bob", 1);
+		notifier.push("carol", "alice:carol", 1);
+		awaitFrames(2);
+
+		assertThat(sent).extracting(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+			.containsExactlyInAnyOrder("/topic/unreadCount/bob", "/topic/unreadCount/carol");
+	}
+
+	@Test
+	void zeroWindowSendsImmediately() {
+		UnreadCountNotifier notifier = new UnreadCountNotifier(template, meterRegistry, 0);
+
+		notifier.push("bob", "alice:bob", 1);
+		notifier.push("bob", "alice:bob", 2);
+
+		assertThat(sent).hasSize(2);
+	}
+
+	private void awaitFrames(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2_000;
+		while (sent.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	// payload 객체를 그대로 받아 보기 위해 변환 없이 전달하는 채널
+	private SimpMessagingTemplate template() {
+		MessageChannel channel = (message, timeout) -> sent.add(message);
+		SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(channel);
+		messagingTemplate.setMessageConverter(new SimpleMessageConverter());
+		return messagingTemplate;
+	}
+}
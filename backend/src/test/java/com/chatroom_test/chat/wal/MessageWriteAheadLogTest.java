@@ -0,0 +1,155 @@
+package com.chatroom_test.chat.wal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MessageWriteAheadLogTest {
+
+	@TempDir
+	Path directory;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentAppendsAreGroupCommittedAndReplayedAfterRestart() throws Exception {
+		MessageWriteAheadLog wal = open(DataSize.ofMegabytes(1));
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			IntStream.range(0, 500).forEach(i -> executor.execute(() -> wal.append(message(i))));
+		}
+		wal.close();
+
+		List<ChatMessage> replayed = new ArrayList<>();
+		MessageWriteAheadLog restarted = open(DataSize.ofMegabytes(1));
+		long count = restarted.replay(replayed::addAll);
+		restarted.close();
+
+		assertThat(count).isEqualTo(500);
+		assertThat(replayed).extracting(ChatMessage::getMessageId)
+			.containsExactlyInAnyOrderElementsOf(IntStream.range(0, 500).mapToObj(String::valueOf).toList());
+		// 500번의 append가 그보다 적은 fsync로 묶였는지
+		assertThat(meterRegistry.get("chat.wal.fsync").timer().count()).isBetween(1L, 500L);
+		assertThat(meterRegistry.get("chat.wal.append").timer().count()).isEqualTo(500);
+	}
+
+	@Test
+	void segmentsBeforeCheckpointAreTruncated() throws Exception {
+		MessageWriteAheadLog wal = open(DataSize.ofKilobytes(64));
+		wal.append(message(1));
+		long checkpoint = wal.checkpoint();
+		wal.append(message(2));
+
+		wal.truncateBefore(checkpoint);
+		wal.close();
+
+		List<ChatMessage> replayed = new ArrayList<>();
+		MessageWriteAheadLog restarted = open(DataSize.ofKilobytes(64));
+		restarted.replay(replayed::addAll);
+		restarted.close();
+
+		assertThat(replayed).extracting(ChatMessage::getMessageId).containsExactly("2");
+	}
+
+	@Test
+	void rollsToNewSegmentWhenFull() throws Exception {
+		MessageWriteAheadLog wal = open(DataSize.ofKilobytes(1));
+		for (int i = 0; i < 50; i++) {
+			wal.append(message(i));
+		}
+		wal.close();
+
+		assertThat(segmentFiles()).hasSizeGreaterThan(1);
+		List<ChatMessage> replayed = new ArrayList<>();
+		MessageWriteAheadLog restarted = open(DataSize.ofKilobytes(1));
+		restarted.replay(replayed::addAll);
+		restarted.close();
+		assertThat(replayed).hasSize(50);
+	}
+
+	@Test
+	void replayStopsAtTornRecord() throws Exception {
+		MessageWriteAheadLog wal = open(DataSize.ofKilobytes(64));
+		wal.append(message(1));
+		wal.append(message(2));
+		wal.close();
+
+		// 두 번째 레코드의 payload 한 바이트를 망가뜨린다
+		Path segment = segmentFiles().get(0);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(4);
+			channel.read(header, 0);
+			int secondPayload = 8 + header.flip().getInt() + 8;
+			channel.write(ByteBuffer.wrap(new byte[] {(byte)0xFF}), secondPayload + 2);
+		}
+
+		List<ChatMessage> replayed = new ArrayList<>();
+		MessageWriteAheadLog restarted = open(DataSize.ofKilobytes(64));
+		restarted.replay(replayed::addAll);
+		restarted.close();
+
+		assertThat(replayed).extracting(ChatMessage::getMessageId).containsExactly("1");
+	}
+
+	@Test
+	void failedReplayKeepsSegmentForNextStart() throws Exception {
+		MessageWriteAheadLog wal = open(DataSize.ofKilobytes(64));
+		wal.append(message(1));
+		wal.close();
+
+		MessageWriteAheadLog restarted = open(DataSize.ofKilobytes(64));
+		assertThatThrownBy(() -> restarted.replay(messages -> {
+			throw new IllegalStateException("db down");
+		})).isInstanceOf(IllegalStateException.class);
+		restarted.close();
+
+		List<ChatMessage> replayed = new ArrayList<>();
+		MessageWriteAheadLog again = open(DataSize.ofKilobytes(64));
+		again.replay(replayed::addAll);
+		again.close();
+		assertThat(replayed).hasSize(1);
+	}
+
+	private MessageWriteAheadLog open(DataSize segmentSize) {
+		return new MessageWriteAheadLog(true, directory, segmentSize, meterRegistry);
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	private ChatMessage message(int index) {
+		ChatMessage message = new ChatMessage();
+		message.setId((long)index);
+		message.setMessageId(String.valueOf(index));
+		message.setSender("alice");
+		message.setReceiver("bob");
+		message.setContent("message " + index);
+		message.setTimestamp(LocalDateTime.of(2025, 4, 1, 10, 0));
+		message.setChatRoom(new ChatRoom("alice:bob", "alice", "bob"));
+		return message;
+	}
+}
@@ -0,0 +1,89 @@
+package com.chatroom_test.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chatroom_test.ChatroomTestApplication;
+
+// 플랫폼 스레드 모드와 가상 스레드 모드에서 블로킹 I/O 요청을 동시에 몇 개까지 처리하는지 비교 (./gradlew loadTest)
+@Tag("load")
+class ThreadModeLoadTest {
+
+	private static final int CONCURRENT_REQUESTS = 400;
+	private static final int TOMCAT_MAX_THREADS = 50;
+	private static final long BLOCKING_MILLIS = 100;
+
+	@Test
+	void virtualThreadModeServesMoreConcurrentBlockingRequests() throws Exception {
+		Result platform = run(false);
+		Result virtual = run(true);
+
+		System.out.printf("[thread-mode] %d concurrent requests, %dms blocking each, tomcat max threads %d%n",
+			CONCURRENT_REQUESTS, BLOCKING_MILLIS, TOMCAT_MAX_THREADS);
+		System.out.printf("[thread-mode] platform: %dms, failures %d%n", platform.elapsed().toMillis(),
+			platform.failures());
+		System.out.printf("[thread-mode] virtual : %dms, failures %d%n", virtual.elapsed().toMillis(),
+			virtual.failures());
+
+		assertThat(platform.failures()).isZero();
+		assertThat(virtual.failures()).isZero();
+		assertThat(virtual.elapsed()).isLessThan(platform.elapsed());
+	}
+
+	private Result run(boolean virtualThreads) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatroomTestApplication.class,
+			BlockingEndpoint.class)
+			.properties(
+				"server.port=0",
+				"spring.threads.virtual.enabled=" + virtualThreads,
+				"server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+				"spring.jpa.show-sql=false")
+			.run();
+			 HttpClient client = HttpClient.newBuilder()
+				 .executor(Executors.newVirtualThreadPerTaskExecutor())
+				 .build()) {
+			int port = ((ServletWebServerApplicationContext)context).getWebServer().getPort();
+			URI uri = URI.create("http://localhost:" + port + "/api/chat/load-test/blocking");
+
+			long start = System.nanoTime();
+			List<CompletableFuture<Boolean>> responses = IntStream.range(0, CONCURRENT_REQUESTS)
+				.mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(uri).GET().build(),
+						HttpResponse.BodyHandlers.ofString())
+					.handle((response, error) -> error == null && response.statusCode() == 200))
+				.toList();
+			long failures = responses.stream().map(CompletableFuture::join).filter(ok -> !ok).count();
+			return new Result(Duration.ofNanos(System.nanoTime() - start), failures);
+		}
+	}
+
+	private record Result(Duration elapsed, long failures) {
+	}
+
+	// DB/Redis 호출을 흉내내는 블로킹 엔드포인트 (/api/chat/** 는 인증 없이 접근 가능)
+	@RestController
+	static class BlockingEndpoint {
+
+		@GetMapping("/api/chat/load-test/blocking")
+		public String block() throws InterruptedException {
+			Thread.sleep(BLOCKING_MILLIS);
+			return "ok";
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.chatroom_test.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.RestTemplateXhrTransport;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.chatroom_test.ChatroomTestApplication;
+
+// 전송 방식별 연결당 메모리와 초당 메시지 수 비교 (./gradlew loadTest)
+// 클라이언트와 서버가 같은 JVM이라 연결당 메모리는 양쪽을 합친 값이다
+@Tag("load")
+class WebSocketTransportLoadTest {
+
+	private static final int CONNECTIONS = 200;
+	private static final int MESSAGES_PER_CONNECTION = 50;
+	// 채팅 메시지처럼 반복되는 JSON이라 압축이 잘 되는 payload
+	private static final String PAYLOAD = "{\"roomId\":\"alice_bob\",\"sender\":\"alice\",\"content\":\""
+		+ "안녕하세요 ".repeat(40) + "\"}";
+
+	@Test
+	void compareTransports() throws Exception {
+		List<Transport> transports = List.of(
+			new Transport("native", "ws://localhost:%d/ws-chat-native", StandardWebSocketClient::new, false),
+			new Transport("native+deflate", "ws://localhost:%d/ws-chat-native", StandardWebSocketClient::new, true),
+			new Transport("sockjs-websocket", "http://localhost:%d/ws-chat",
+				() -> new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))), false),
+			new Transport("sockjs-xhr-streaming", "http://localhost:%d/ws-chat",
+				() -> new SockJsClient(List.of(new RestTemplateXhrTransport())), false));
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatroomTestApplication.class,
+			EchoEndpoint.class)
+			.properties(
+				"server.port=0",
+				"spring.jpa.show-sql=false")
+			.run()) {
+			int port = ((ServletWebServerApplicationContext)context).getWebServer().getPort();
+
+			System.out.printf("[ws-transport] %d connections, %d messages each, payload %d chars%n",
+				CONNECTIONS, MESSAGES_PER_CONNECTION, PAYLOAD.length());
+			for (Transport transport : transports) {
+				Result result = run(transport, port);
+				System.out.printf("[ws-transport] %-20s %6d bytes/connection, %8.0f messages/sec%n",
+					transport.name(), result.bytesPerConnection(), result.messagesPerSecond());
+				assertThat(result.received()).isEqualTo((long)CONNECTIONS * MESSAGES_PER_CONNECTION);
+			}
+		}
+	}
+
+	private Result run(Transport transport, int port) throws Exception {
+		WebSocketStompClient stompClient = new WebSocketStompClient(transport.client().get());
+		stompClient.setMessageConverter(new StringMessageConverter());
+		WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+		if (transport.deflate()) {
+			handshakeHeaders.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+		}
+		String url = transport.url().formatted(port);
+
+		long heapBefore = usedHeap();
+		CountDownLatch received = new CountDownLatch(CONNECTIONS * MESSAGES_PER_CONNECTION);
+		List<StompSession> sessions = new ArrayList<>();
+		try {
+			for (int i = 0; i < CONNECTIONS; i++) {
+				StompSession session = stompClient.connectAsync(url, handshakeHeaders, new StompHeaders(),
+					new StompSessionHandlerAdapter() {
+					}).get(10, TimeUnit.SECONDS);
+				session.subscribe("/topic/load-test/" + i, new StompFrameHandler() {
+					@Override
+					public Type getPayloadType(StompHeaders headers) {
+						return String.class;
+					}
+
+					@Override
+					public void handleFrame(StompHeaders headers, Object payload) {
+						received.countDown();
+					}
+				});
+				sessions.add(session);
+			}
+			long bytesPerConnection = (usedHeap() - heapBefore) / CONNECTIONS;
+			// SUBSCRIBE가 브로커에 등록될 시간
+			Thread.sleep(500);
+
+			long start = System.nanoTime();
+			try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (int i = 0; i < CONNECTIONS; i++) {
+					StompSession session = sessions.get(i);
+					String destination = "/app/load-test.echo/" + i;
+					senders.submit(() -> {
+						for (int m = 0; m < MESSAGES_PER_CONNECTION; m++) {
+							session.send(destination, PAYLOAD);
+						}
+					});
+				}
+			}
+			received.await(60, TimeUnit.SECONDS);
+			long elapsedNanos = System.nanoTime() - start;
+			long delivered = (long)CONNECTIONS * MESSAGES_PER_CONNECTION - received.getCount();
+			return new Result(bytesPerConnection, delivered * 1_000_000_000.0 / elapsedNanos, delivered);
+		} finally {
+			sessions.forEach(StompSession::disconnect);
+			stompClient.stop();
+		}
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		System.gc();
+		Thread.sleep(200);
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private record Transport(String name, String url, Supplier<WebSocketClient> client, boolean deflate) {
+	}
+
+	private record Result(long bytesPerConnection, double messagesPerSecond, long received) {
+	}
+
+	// 받은 payload를 보낸 연결의 topic으로 그대로 돌려준다 (Redis/DB를 거치지 않아 전송 비용만 측정)
+	@Controller
+	static class EchoEndpoint {
+
+		@MessageMapping("/load-test.echo/{id}")
+		@SendTo("/topic/load-test/{id}")
+		public String echo(String payload) {
+			return payload;
+		}
+	}
+}
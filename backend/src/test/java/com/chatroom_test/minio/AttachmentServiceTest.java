@@ -0,0 +1,170 @@
+package com.chatroom_test.minio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// 미리보기 생성 스레드가 저장된 행을 볼 수 있도록 테스트 트랜잭션 없이 실행
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttachmentServiceTest {
+
+	@Autowired
+	private StoredFileRepository storedFileRepository;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private FakeS3Server s3;
+	private ThumbnailGenerator thumbnailGenerator;
+	private AttachmentService attachmentService;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		s3 = new FakeS3Server();
+		MinioService minioService = new MinioService(s3.url(), "minio", "minio123", "chat-files", "us-east-1",
+			DataSize.ofKilobytes(64), 4, 2, DataSize.ofMegabytes(10), Duration.ofSeconds(30),
+			Duration.ofMinutes(60), Duration.ofMinutes(5), 1000, meterRegistry);
+		thumbnailGenerator = new ThumbnailGenerator(minioService, storedFileRepository, meterRegistry,
+			64, DataSize.ofMegabytes(5), 1_000_000, 1);
+		attachmentService = new AttachmentService(minioService, storedFileRepository, thumbnailGenerator,
+			meterRegistry, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		thumbnailGenerator.close();
+		s3.stop();
+	}
+
+	@Test
+	void sameContentIsStoredOnceAndReferenced() throws Exception {
+		byte[] content = randomBytes(200_000, 1);
+
+		StoredFile first = attachmentService.store(new ByteArrayInputStream(content), "application/pdf");
+		StoredFile second = attachmentService.store(new ByteArrayInputStream(content), "application/pdf");
+
+		assertThat(second.getContentHash()).isEqualTo(first.getContentHash());
+		// 처음 올린 객체를 복사 없이 그대로 쓰고, 두 번째 업로드 객체는 지운다
+		assertThat(first.getObjectName()).startsWith(AttachmentService.FILES_PREFIX);
+		assertThat(s3.objects).containsOnlyKeys(first.getObjectName());
+		assertThat(s3.objects.get(first.getObjectName())).isEqualTo(content);
+		assertThat(storedFileRepository.findById(first.getContentHash()).orElseThrow().getReferenceCount())
+			.isEqualTo(2);
+		assertThat(meterRegistry.get("files.upload").tag("result", "deduplicated").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void lastReleaseRemovesObjectAndRecord() throws Exception {
+		byte[] content = randomBytes(10_000, 4);
+		StoredFile file = attachmentService.store(new ByteArrayInputStream(content), "application/pdf");
+		attachmentService.store(new ByteArrayInputStream(content), "application/pdf");
+
+		attachmentService.release(file.getContentHash());
+		assertThat(s3.objects).containsKey(file.getObjectName());
+		assertThat(storedFileRepository.findById(file.getContentHash()).orElseThrow().getReferenceCount())
+			.isEqualTo(1);
+
+		attachmentService.release(file.getContentHash());
+		assertThat(s3.objects).doesNotContainKey(file.getObjectName());
+		assertThat(storedFileRepository.findById(file.getContentHash())).isEmpty();
+	}
+
+	@Test
+	void sweepRemovesOnlyOldUnreferencedObjects() throws Exception {
+		StoredFile file = attachmentService.store(new ByteArrayInputStream(randomBytes(1_000, 5)), "text/plain");
+		// 기록 전에 중단된 업로드와 원본이 지워진 뒤 남은 미리보기
+		s3.objects.put(AttachmentService.FILES_PREFIX + "interrupted", new byte[] {1});
+		s3.objects.put(ThumbnailGenerator.THUMBNAIL_PREFIX + "leftover.jpg", new byte[] {2});
+		s3.objects.put(AttachmentService.FILES_PREFIX + "uploading", new byte[] {3});
+		Instant old = Instant.now().minus(Duration.ofHours(2));
+		s3.modified.put(file.getObjectName(), old);
+		s3.modified.put(AttachmentService.FILES_PREFIX + "interrupted", old);
+		s3.modified.put(ThumbnailGenerator.THUMBNAIL_PREFIX + "leftover.jpg", old);
+		s3.modified.put(AttachmentService.FILES_PREFIX + "uploading", Instant.now());
+
+		attachmentService.sweepOrphans();
+
+		assertThat(s3.objects).containsOnlyKeys(file.getObjectName(), AttachmentService.FILES_PREFIX + "uploading");
+	}
+
+	@Test
+	void differentContentIsStoredSeparately() throws Exception {
+		StoredFile first = attachmentService.store(new ByteArrayInputStream(randomBytes(1_000, 2)), "text/plain");
+		StoredFile second = attachmentService.store(new ByteArrayInputStream(randomBytes(1_000, 3)), "text/plain");
+
+		assertThat(second.getContentHash()).isNotEqualTo(first.getContentHash());
+		assertThat(s3.objects).hasSize(2);
+		assertThat(first.getThumbnailObjectName()).isNull();
+	}
+
+	@Test
+	void imageGetsThumbnailGeneratedInBackground() throws Exception {
+		StoredFile file = attachmentService.store(new ByteArrayInputStream(png(800, 400)), "image/png");
+
+		String thumbnail = awaitThumbnail(file.getContentHash());
+
+		assertThat(thumbnail).isEqualTo(ThumbnailGenerator.THUMBNAIL_PREFIX + file.getContentHash() + ".jpg");
+		BufferedImage preview = ImageIO.read(new ByteArrayInputStream(s3.objects.get(thumbnail)));
+		assertThat(preview.getWidth()).isEqualTo(64);
+		assertThat(preview.getHeight()).isEqualTo(32);
+	}
+
+	@Test
+	void imageOverPixelBudgetIsSkippedWithoutDecoding() throws Exception {
+		// 파일은 작지만 픽셀 수가 max-pixels를 넘는 이미지
+		StoredFile file = attachmentService.store(new ByteArrayInputStream(png(2_000, 1_000)), "image/png");
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (meterRegistry.get("files.thumbnail.skipped").counter().count() < 1
+			&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertThat(meterRegistry.get("files.thumbnail.skipped").counter().count()).isEqualTo(1);
+		assertThat(storedFileRepository.findById(file.getContentHash()).orElseThrow().getThumbnailObjectName())
+			.isNull();
+	}
+
+	private String awaitThumbnail(String contentHash) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < deadline) {
+			String thumbnail = storedFileRepository.findById(contentHash).orElseThrow().getThumbnailObjectName();
+			if (thumbnail != null) {
+				return thumbnail;
+			}
+			Thread.sleep(20);
+		}
+		return null;
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+		return out.toByteArray();
+	}
+
+	private static byte[] randomBytes(int length, long seed) {
+		byte[] bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+}
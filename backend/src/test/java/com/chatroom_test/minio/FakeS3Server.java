@@ -0,0 +1,180 @@
+package com.chatroom_test.minio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// 실제 MinIO 클라이언트로 테스트하기 위한 S3 호환 stand-in (path-style)
+// HEAD/PUT bucket, ListObjectsV2, 멀티파트 create/uploadPart/complete/abort, 객체 PUT/GET/DELETE만 처리
+class FakeS3Server {
+	private static final String NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+
+	private final HttpServer server;
+	private final Set<String> buckets = ConcurrentHashMap.newKeySet();
+	private final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+	final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+	// 객체별 마지막 수정 시각 (테스트에서 과거로 바꿔 오래된 객체를 흉내)
+	final Map<String, Instant> modified = new ConcurrentHashMap<>();
+	final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+	final AtomicInteger bucketChecks = new AtomicInteger();
+	final AtomicInteger bucketCreations = new AtomicInteger();
+	final AtomicInteger partCount = new AtomicInteger();
+	final AtomicInteger maxConcurrentParts = new AtomicInteger();
+	private final AtomicInteger concurrentParts = new AtomicInteger();
+	private final AtomicInteger uploadSequence = new AtomicInteger();
+	volatile int failPartNumber = -1;
+
+	FakeS3Server() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	String url() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	void stop() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			String[] path = exchange.getRequestURI().getRawPath().substring(1).split("/", 2);
+			String bucket = path[0];
+			String object = path.length > 1 ? URLDecoder.decode(path[1], StandardCharsets.UTF_8) : null;
+			Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+			byte[] body = exchange.getRequestBody().readAllBytes();
+			String method = exchange.getRequestMethod();
+
+			if (object == null && method.equals("HEAD")) {
+				bucketChecks.incrementAndGet();
+				exchange.sendResponseHeaders(buckets.contains(bucket) ? 200 : 404, -1);
+			} else if (object == null && method.equals("PUT")) {
+				bucketCreations.incrementAndGet();
+				buckets.add(bucket);
+				exchange.sendResponseHeaders(200, -1);
+			} else if (object == null && method.equals("GET") && query.containsKey("list-type")) {
+				listObjects(exchange, bucket, query.getOrDefault("prefix", ""));
+			} else if (method.equals("POST") && query.containsKey("uploads")) {
+				String uploadId = "upload-" + uploadSequence.incrementAndGet();
+				uploads.put(uploadId, new TreeMap<>());
+				xml(exchange, "<InitiateMultipartUploadResult xmlns=\"" + NAMESPACE + "\"><Bucket>" + bucket
+					+ "</Bucket><Key>" + object + "</Key><UploadId>" + uploadId
+					+ "</UploadId></InitiateMultipartUploadResult>");
+			} else if (method.equals("PUT") && query.containsKey("partNumber")) {
+				uploadPart(exchange, query, body);
+			} else if (method.equals("POST") && query.containsKey("uploadId")) {
+				TreeMap<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+				ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+				parts.values().forEach(assembled::writeBytes);
+				store(object, assembled.toByteArray());
+				xml(exchange, "<CompleteMultipartUploadResult xmlns=\"" + NAMESPACE + "\"><Location>" + url()
+					+ "/" + bucket + "/" + object + "</Location><Bucket>" + bucket + "</Bucket><Key>" + object
+					+ "</Key><ETag>\"complete\"</ETag></CompleteMultipartUploadResult>");
+			} else if (method.equals("DELETE") && query.containsKey("uploadId")) {
+				uploads.remove(query.get("uploadId"));
+				abortedUploads.add(query.get("uploadId"));
+				exchange.sendResponseHeaders(204, -1);
+			} else if (method.equals("PUT")) {
+				store(object, body);
+				exchange.getResponseHeaders().add("ETag", "\"object\"");
+				exchange.sendResponseHeaders(200, -1);
+			} else if (method.equals("GET")) {
+				byte[] content = objects.get(object);
+				if (content == null) {
+					exchange.sendResponseHeaders(404, -1);
+					return;
+				}
+				exchange.sendResponseHeaders(200, content.length);
+				exchange.getResponseBody().write(content);
+			} else if (method.equals("DELETE")) {
+				objects.remove(object);
+				modified.remove(object);
+				exchange.sendResponseHeaders(204, -1);
+			} else {
+				exchange.sendResponseHeaders(501, -1);
+			}
+		}
+	}
+
+	private void store(String object, byte[] content) {
+		objects.put(object, content);
+		modified.put(object, Instant.now());
+	}
+
+	private void listObjects(HttpExchange exchange, String bucket, String prefix) throws IOException {
+		StringBuilder contents = new StringBuilder();
+		int count = 0;
+		for (Map.Entry<String, byte[]> entry : new TreeMap<>(objects).entrySet()) {
+			if (!entry.getKey().startsWith(prefix)) {
+				continue;
+			}
+			count++;
+			contents.append("<Contents><Key>").append(entry.getKey()).append("</Key><LastModified>")
+				.append(modified.getOrDefault(entry.getKey(), Instant.now()).truncatedTo(ChronoUnit.MILLIS))
+				.append("</LastModified><ETag>\"object\"</ETag><Size>").append(entry.getValue().length)
+				.append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+		}
+		xml(exchange, "<ListBucketResult xmlns=\"" + NAMESPACE + "\"><Name>" + bucket + "</Name><Prefix>" + prefix
+			+ "</Prefix><KeyCount>" + count + "</KeyCount><MaxKeys>1000</MaxKeys><IsTruncated>false</IsTruncated>"
+			+ contents + "</ListBucketResult>");
+	}
+
+	private void uploadPart(HttpExchange exchange, Map<String, String> query, byte[] body) throws IOException {
+		int partNumber = Integer.parseInt(query.get("partNumber"));
+		int concurrent = concurrentParts.incrementAndGet();
+		maxConcurrentParts.accumulateAndGet(concurrent, Math::max);
+		try {
+			// 네트워크 지연을 흉내 내 part 업로드가 겹치게 만든다
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			concurrentParts.decrementAndGet();
+		}
+		if (partNumber == failPartNumber) {
+			exchange.sendResponseHeaders(500, -1);
+			return;
+		}
+		partCount.incrementAndGet();
+		uploads.get(query.get("uploadId")).put(partNumber, body);
+		exchange.getResponseHeaders().add("ETag", "\"part-" + partNumber + "\"");
+		exchange.sendResponseHeaders(200, -1);
+	}
+
+	private static void xml(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/xml");
+		exchange.sendResponseHeaders(200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+
+	private static Map<String, String> query(String rawQuery) {
+		Map<String, String> params = new HashMap<>();
+		if (rawQuery == null) {
+			return params;
+		}
+		for (String pair : rawQuery.split("&")) {
+			String[] keyValue = pair.split("=", 2);
+			params.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+				keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+		}
+		return params;
+	}
+}
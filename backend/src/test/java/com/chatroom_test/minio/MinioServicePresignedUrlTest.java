@@ -0,0 +1,67 @@
+package com.chatroom_test.minio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// presigned URL 서명은 로컬 연산이라 MinIO 서버 없이 확인할 수 있다
+class MinioServicePresignedUrlTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void sameFileReusesSignedUrl() throws Exception {
+		MinioService minioService = minioService(Duration.ofMinutes(60), Duration.ofMinutes(5));
+
+		String first = minioService.getFileUrl("1_photo.png");
+		String second = minioService.getFileUrl("1_photo.png");
+
+		assertThat(second).isSameAs(first);
+		assertThat(first).contains("X-Amz-Expires=3600");
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "presignedUrls").tag("result", "hit")
+			.functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void urlIsResignedOnceSafetyMarginIsReached() throws Exception {
+		MinioService minioService = minioService(Duration.ofSeconds(2), Duration.ofMillis(1_900));
+
+		String first = minioService.getFileUrl("1_photo.png");
+		Thread.sleep(1_100);
+		String second = minioService.getFileUrl("1_photo.png");
+
+		assertThat(second).isNotSameAs(first);
+	}
+
+	@Test
+	void batchLookupKeepsOrderAndDeduplicates() throws Exception {
+		MinioService minioService = minioService(Duration.ofMinutes(60), Duration.ofMinutes(5));
+		String cached = minioService.getFileUrl("2_b.png");
+
+		Map<String, String> urls = minioService.getFileUrls(List.of("3_c.png", "2_b.png", "1_a.png", "3_c.png"));
+
+		assertThat(urls).containsOnlyKeys("3_c.png", "2_b.png", "1_a.png");
+		assertThat(urls.keySet()).containsExactly("3_c.png", "2_b.png", "1_a.png");
+		assertThat(urls.get("2_b.png")).isSameAs(cached);
+	}
+
+	@Test
+	void safetyMarginMustBeShorterThanExpiry() {
+		assertThatThrownBy(() -> minioService(Duration.ofMinutes(5), Duration.ofMinutes(5)))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("safety-margin");
+	}
+
+	private MinioService minioService(Duration expiry, Duration safetyMargin) {
+		return new MinioService("http://localhost:9000", "minio", "minio123", "chat-files", "us-east-1",
+			DataSize.ofMegabytes(5), 1, 1, DataSize.ofMegabytes(10), Duration.ofSeconds(30), expiry, safetyMargin, 1000, meterRegistry);
+	}
+}
@@ -0,0 +1,177 @@
+package com.chatroom_test.minio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// S3 멀티파트 API 일부만 흉내 내는 로컬 stand-in 서버에 실제 MinIO 클라이언트로 업로드
+class MinioServiceStreamingUploadTest {
+
+	private static final int PART_SIZE = 64 * 1024;
+	private static final int BUFFER_COUNT = 4;
+	private static final int PART_CONCURRENCY = 2;
+
+	private FakeS3Server s3;
+	private MinioService minioService;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		s3 = new FakeS3Server();
+		minioService = new MinioService(s3.url(), "minio", "minio123", "chat-files", "us-east-1",
+			DataSize.ofBytes(PART_SIZE), BUFFER_COUNT, PART_CONCURRENCY, DataSize.ofMegabytes(10), Duration.ofSeconds(30),
+			Duration.ofMinutes(60), Duration.ofMinutes(5), 1000, new SimpleMeterRegistry());
+		minioService.bootstrapBucket();
+	}
+
+	@AfterEach
+	void tearDown() {
+		s3.stop();
+	}
+
+	@Test
+	void streamIsUploadedInConcurrentPartsAndReassembled() throws Exception {
+		byte[] content = randomBytes(PART_SIZE * 4 + 123);
+
+		UploadedObject uploaded = minioService.uploadStream(new ByteArrayInputStream(content), "photo.png", "image/png");
+
+		assertThat(s3.objects.get("photo.png")).isEqualTo(content);
+		assertThat(uploaded.size()).isEqualTo(content.length);
+		assertThat(uploaded.contentHash())
+			.isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		assertThat(s3.partCount.get()).isEqualTo(5);
+		assertThat(s3.maxConcurrentParts.get()).isBetween(2, PART_CONCURRENCY);
+	}
+
+	@Test
+	void bucketIsCreatedOnceAtStartup() throws Exception {
+		minioService.uploadStream(new ByteArrayInputStream(randomBytes(10)), "a.txt", "text/plain");
+		minioService.uploadStream(new ByteArrayInputStream(randomBytes(10)), "b.txt", "text/plain");
+
+		assertThat(s3.bucketChecks.get()).isEqualTo(1);
+		assertThat(s3.bucketCreations.get()).isEqualTo(1);
+	}
+
+	@Test
+	void emptyStreamUploadsSingleEmptyPart() throws Exception {
+		minioService.uploadStream(InputStream.nullInputStream(), "empty.txt", "text/plain");
+
+		assertThat(s3.objects.get("empty.txt")).isEmpty();
+		assertThat(s3.partCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	void failedPartAbortsUploadAndReturnsBuffers() {
+		s3.failPartNumber = 2;
+
+		assertThatThrownBy(() ->
+			minioService.uploadStream(new ByteArrayInputStream(randomBytes(PART_SIZE * 3)), "big.bin", null))
+			.isInstanceOf(Exception.class);
+
+		assertThat(s3.abortedUploads).hasSize(1);
+		assertThat(s3.objects).isEmpty();
+		assertThat(minioService.getAvailablePartBuffers()).isEqualTo(BUFFER_COUNT);
+	}
+
+	@Test
+	void idleUploadDoesNotHoldPartBuffer() throws Exception {
+		StallingInputStream idle = new StallingInputStream(0);
+		Thread upload = Thread.ofVirtual().start(() -> uploadQuietly(minioService, idle, "idle.bin"));
+		assertThat(idle.stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(minioService.getAvailablePartBuffers()).isEqualTo(BUFFER_COUNT);
+
+		idle.resume.countDown();
+		upload.join(5_000);
+		assertThat(minioService.getAvailablePartBuffers()).isEqualTo(BUFFER_COUNT);
+	}
+
+	@Test
+	void uploadGivesUpWhenNoPartBufferIsReturned() throws Exception {
+		MinioService singleBuffer = new MinioService(s3.url(), "minio", "minio123", "chat-files", "us-east-1",
+			DataSize.ofBytes(PART_SIZE), 1, 1, DataSize.ofMegabytes(10), Duration.ofMillis(200),
+			Duration.ofMinutes(60), Duration.ofMinutes(5), 1000, new SimpleMeterRegistry());
+		// 첫 바이트만 보내고 멈춘 업로드가 하나뿐인 버퍼를 잡고 있다
+		StallingInputStream slow = new StallingInputStream(1);
+		Thread upload = Thread.ofVirtual().start(() -> uploadQuietly(singleBuffer, slow, "slow.bin"));
+		assertThat(slow.stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() ->
+			singleBuffer.uploadStream(new ByteArrayInputStream(randomBytes(10)), "fast.bin", "text/plain"))
+			.isInstanceOf(IOException.class);
+
+		slow.resume.countDown();
+		upload.join(5_000);
+		assertThat(singleBuffer.getAvailablePartBuffers()).isEqualTo(1);
+	}
+
+	private static void uploadQuietly(MinioService service, InputStream in, String fileName) {
+		try {
+			service.uploadStream(in, fileName, "application/octet-stream");
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// prefix 바이트를 보낸 뒤 resume 될 때까지 멈췄다가 스트림을 끝내는 요청 본문
+	private static class StallingInputStream extends InputStream {
+
+		private final CountDownLatch stalled = new CountDownLatch(1);
+		private final CountDownLatch resume = new CountDownLatch(1);
+		private int remainingPrefix;
+
+		StallingInputStream(int prefix) {
+			this.remainingPrefix = prefix;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remainingPrefix > 0) {
+				remainingPrefix--;
+				return 7;
+			}
+			stalled.countDown();
+			try {
+				resume.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return -1;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			int read = read();
+			if (read < 0) {
+				return -1;
+			}
+			buffer[offset] = (byte)read;
+			return 1;
+		}
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,78 @@
+package com.chatroom_test.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import com.chatroom_test.chat.entity.ChatMessage;
+import com.chatroom_test.chat.entity.ChatRoom;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class ChatMessageRedisSerializerTest {
+
+	private final ChatMessageRedisSerializer serializer = new ChatMessageRedisSerializer();
+
+	@Test
+	void roundTripKeepsFieldsAndOnlyRoomIdReference() {
+		ChatMessage message = message();
+
+		ChatMessage decoded = serializer.deserialize(serializer.serialize(message));
+
+		assertThat(decoded.getId()).isEqualTo(42L);
+		assertThat(decoded.getSender()).isEqualTo("alice");
+		assertThat(decoded.getReceiver()).isEqualTo("bob");
+		assertThat(decoded.getContent()).isEqualTo("안녕하세요 👋");
+		assertThat(decoded.getTimestamp()).isEqualTo(message.getTimestamp());
+		assertThat(decoded.getFileUrl()).isNull();
+		assertThat(decoded.getChatRoom().getRoomId()).isEqualTo("alice:bob");
+		assertThat(decoded.getChatRoom().getClient()).isNull();
+		assertThat(decoded.getMessageId()).isEqualTo("0195e6a1-7c00-7abc-8def-0123456789ab");
+	}
+
+	@Test
+	void thumbnailUrlUsesVersion2OnlyWhenPresent() {
+		ChatMessage message = message();
+		assertThat(serializer.serialize(message)[0]).isEqualTo(ChatMessageRedisSerializer.VERSION_1);
+
+		message.setFileUrl("/api/files/abc");
+		message.setThumbnailUrl("/api/files/abc/thumbnail");
+		byte[] encoded = serializer.serialize(message);
+		ChatMessage decoded = serializer.deserialize(encoded);
+
+		assertThat(encoded[0]).isEqualTo(ChatMessageRedisSerializer.VERSION_2);
+		assertThat(decoded.getFileUrl()).isEqualTo("/api/files/abc");
+		assertThat(decoded.getThumbnailUrl()).isEqualTo("/api/files/abc/thumbnail");
+		assertThat(decoded.getMessageId()).isEqualTo("0195e6a1-7c00-7abc-8def-0123456789ab");
+	}
+
+	@Test
+	void readsLegacyJsonEntries() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new JavaTimeModule());
+		byte[] legacy = new Jackson2JsonRedisSerializer<>(objectMapper, ChatMessage.class).serialize(message());
+
+		ChatMessage decoded = serializer.deserialize(legacy);
+
+		assertThat(decoded.getContent()).isEqualTo("안녕하세요 👋");
+		assertThat(decoded.getChatRoom().getClient()).isEqualTo("alice");
+		assertThat(serializer.serialize(decoded).length).isLessThan(legacy.length);
+	}
+
+	private ChatMessage message() {
+		ChatRoom room = new ChatRoom("alice:bob", "alice", "bob");
+		room.setLastReadAtUser1(LocalDateTime.of(2025, 3, 1, 12, 0));
+		ChatMessage message = new ChatMessage();
+		message.setId(42L);
+		message.setMessageId("0195e6a1-7c00-7abc-8def-0123456789ab");
+		message.setSender("alice");
+		message.setReceiver("bob");
+		message.setContent("안녕하세요 👋");
+		message.setTimestamp(LocalDateTime.of(2025, 3, 30, 9, 15, 30, 123_456_789));
+		message.setChatRoom(room);
+		return message;
+	}
+}
@@ -0,0 +1,66 @@
+package com.chatroom_test.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+class TokenChannelInterceptorTest {
+
+	private final TokenService tokenService = new TokenService("0123456789abcdef0123456789abcdef", Duration.ofHours(1), "token");
+	private final MessageChannel inbound = (message, timeout) -> true;
+
+	@Test
+	void validTokenBecomesSessionUser() {
+		TokenChannelInterceptor interceptor = new TokenChannelInterceptor(tokenService, "token");
+
+		Message<?> result = interceptor.preSend(connect("Bearer " + tokenService.issue("alice")), inbound);
+
+		assertThat(SimpMessageHeaderAccessor.getUser(result.getHeaders()).getName()).isEqualTo("alice");
+	}
+
+	@Test
+	void invalidTokenIsRejectedInBothModes() {
+		for (String mode : new String[] {"session", "token"}) {
+			TokenChannelInterceptor interceptor = new TokenChannelInterceptor(tokenService, mode);
+
+			assertThatThrownBy(() -> interceptor.preSend(connect("Bearer forged.1.sig"), inbound))
+				.isInstanceOf(MessagingException.class);
+		}
+	}
+
+	@Test
+	void anonymousConnectIsRejectedOnlyInTokenMode() {
+		assertThat(new TokenChannelInterceptor(tokenService, "session").preSend(connect(null), inbound)).isNotNull();
+
+		assertThatThrownBy(() -> new TokenChannelInterceptor(tokenService, "token").preSend(connect(null), inbound))
+			.isInstanceOf(MessagingException.class);
+	}
+
+	@Test
+	void modeIsReadTheSameWayAsTokenService() {
+		assertThatThrownBy(() -> new TokenChannelInterceptor(tokenService, "TOKEN").preSend(connect(null), inbound))
+			.isInstanceOf(MessagingException.class);
+		assertThatThrownBy(() -> new TokenChannelInterceptor(tokenService, "tokens"))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private Message<byte[]> connect(String authorization) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+		accessor.setSessionId("s1");
+		if (authorization != null) {
+			accessor.setNativeHeader("Authorization", authorization);
+		}
+		accessor.setLeaveMutable(true);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
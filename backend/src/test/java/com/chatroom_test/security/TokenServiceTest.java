@@ -0,0 +1,73 @@
+package com.chatroom_test.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class TokenServiceTest {
+
+	private static final Instant NOW = Instant.parse("2025-04-01T10:00:00Z");
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	private final TokenService tokenService = new TokenService(SECRET, Duration.ofHours(1), "token", clockAt(NOW));
+
+	@Test
+	void issuedTokenVerifiesToUsername() {
+		String token = tokenService.issue("alice.kim");
+
+		assertThat(tokenService.verify(token)).isEqualTo("alice.kim");
+	}
+
+	@Test
+	void tokenFromAnotherNodeWithSameSecretIsAccepted() {
+		TokenService otherNode = new TokenService(SECRET, Duration.ofHours(1), "token", clockAt(NOW.plusSeconds(60)));
+
+		assertThat(otherNode.verify(tokenService.issue("alice"))).isEqualTo("alice");
+	}
+
+	@Test
+	void tamperedOrForeignTokensAreRejected() {
+		String token = tokenService.issue("alice");
+		String forged = token.replaceFirst("^[^.]+", "Ym9i"); // username을 bob으로 변경
+		String extended = token.replaceFirst("\\.(\\d+)\\.", "." + NOW.plusSeconds(86_400).getEpochSecond() + ".");
+		TokenService otherSecret = new TokenService("fedcba9876543210fedcba9876543210", Duration.ofHours(1), "token", clockAt(NOW));
+
+		assertThat(tokenService.verify(forged)).isNull();
+		assertThat(tokenService.verify(extended)).isNull();
+		assertThat(otherSecret.verify(token)).isNull();
+		assertThat(tokenService.verify("not-a-token")).isNull();
+		assertThat(tokenService.verify("a.b.c")).isNull();
+		assertThat(tokenService.verify(null)).isNull();
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		String token = tokenService.issue("alice");
+		TokenService later = new TokenService(SECRET, Duration.ofHours(1), "token", clockAt(NOW.plus(Duration.ofHours(1))));
+
+		assertThat(later.verify(token)).isNull();
+	}
+
+	@Test
+	void tokenModeRequiresSecret() {
+		assertThatThrownBy(() -> new TokenService("", Duration.ofHours(1), "token", clockAt(NOW)))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(new TokenService("", Duration.ofHours(1), "session", clockAt(NOW)).issue("alice")).isNotNull();
+	}
+
+	@Test
+	void shortSecretIsRejected() {
+		assertThatThrownBy(() -> new TokenService("secret", Duration.ofHours(1), "session", clockAt(NOW)))
+			.isInstanceOf(IllegalStateException.class);
+	}
+
+	private static Clock clockAt(Instant instant) {
+		return Clock.fixed(instant, ZoneOffset.UTC);
+	}
+}
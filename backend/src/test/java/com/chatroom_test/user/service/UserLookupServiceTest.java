@@ -0,0 +1,113 @@
+package com.chatroom_test.user.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.chatroom_test.user.entity.User;
+import com.chatroom_test.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// 실행된 SQL 수는 Hibernate 통계로 확인
+@DataJpaTest(properties = {
+	"spring.jpa.show-sql=false",
+	"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserLookupServiceTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private UserLookupService userLookupService;
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		save("alice");
+		save("bob");
+		userLookupService = new UserLookupService(userRepository, null, new SimpleMeterRegistry(),
+			new DefaultListableBeanFactory().getBeanProvider(RedisMessageListenerContainer.class),
+			100, Duration.ofMinutes(10), 1_000, 0.01);
+		userLookupService.rebuildFilter();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void unknownUsernamesAreRejectedWithoutQuery() {
+		for (int i = 0; i < 50; i++) {
+			assertThat(userLookupService.exists("nobody-" + i)).isFalse();
+		}
+
+		// 오탐률 1%라 50건 중 DB까지 가는 경우는 거의 없다
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+	}
+
+	@Test
+	void repeatedLookupsAreServedFromCache() {
+		assertThat(userLookupService.findByUsername("alice")).isPresent();
+		assertThat(userLookupService.findByUsername("alice")).isPresent();
+		assertThat(userLookupService.exists("alice")).isTrue();
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void registeredUserIsVisibleBeforeNextRebuild() {
+		assertThat(userLookupService.exists("carol")).isFalse();
+
+		save("carol");
+		userLookupService.registered("carol");
+
+		assertThat(userLookupService.exists("carol")).isTrue();
+	}
+
+	@Test
+	void missedRegistrationDoesNotBlockLookup() {
+		// 다른 노드에서 가입했고 알림을 놓쳐 filter에는 없는 경우
+		save("dave");
+
+		assertThat(userLookupService.findByUsername("dave")).isPresent();
+		assertThat(userLookupService.exists("dave")).isTrue();
+	}
+
+	@Test
+	void invalidateForcesReload() {
+		userLookupService.findByUsername("bob");
+		userLookupService.invalidate("bob");
+		userLookupService.findByUsername("bob");
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void everyUsernameMightExistBeforeFirstBuild() {
+		UserLookupService notBuilt = new UserLookupService(userRepository, null, new SimpleMeterRegistry(),
+			new DefaultListableBeanFactory().getBeanProvider(RedisMessageListenerContainer.class),
+			100, Duration.ofMinutes(10), 1_000, 0.01);
+
+		assertThat(notBuilt.mightExist("nobody")).isTrue();
+		assertThat(notBuilt.exists("alice")).isTrue();
+	}
+
+	private void save(String username) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("{noop}password");
+		userRepository.saveAndFlush(user);
+	}
+}
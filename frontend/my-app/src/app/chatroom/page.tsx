@@ -12,8 +12,12 @@ interface ChatMessage {
     content: string;
     timestamp?: string;
     fileUrl?: string;
+    thumbnailUrl?: string;
 }
 
+// 서버가 돌려주는 파일 주소는 /api/files/... 형태의 고정 경로
+const fileSrc = (url: string) => (url.startsWith("/") ? `http://localhost:8080${url}` : url);
+
 const ChatRoom: React.FC = () => {
     const [username, setUsername] = useState("");
     const [receiver, setReceiver] = useState("");
@@ -23,6 +27,10 @@ const ChatRoom: React.FC = () => {
     const [roomId, setRoomId] = useState("");
     const [isConnected, setIsConnected] = useState(false);
     const [file, setFile] = useState<File | null>(null);
+    // 더 오래된 페이지를 요청할 때 before로 보낼 id (서버가 돌려준 keyset 커서)
+    const [nextBefore, setNextBefore] = useState<number | null>(null);
+    const [hasMore, setHasMore] = useState(false);
+    const [loadingOlder, setLoadingOlder] = useState(false);
 
     const messagesEndRef = useRef<HTMLDivElement | null>(null);
     const fileInputRef = useRef<HTMLInputElement>(null);
@@ -72,37 +80,78 @@ const ChatRoom: React.FC = () => {
         }
     }, [username, searchParams]);
 
-    // 채팅 기록 로드
+    // 채팅 기록 페이지 조회 (before가 없으면 최근 페이지)
+    const fetchHistoryPage = async (before: number | null) => {
+        const cursor = before === null ? "" : `&before=${before}`;
+        const response = await fetch(
+            `http://localhost:8080/api/chat/history?roomId=${roomId}&limit=50${cursor}`,
+            {credentials: "include"}
+        );
+        if (!response.ok) {
+            console.error("채팅 기록 조회 실패", response.status);
+            return null;
+        }
+        return (await response.json()) as { messages: ChatMessage[]; nextBefore: number | null; hasMore: boolean };
+    };
+
+    // 채팅 기록 로드 (최근 페이지만 조회, 커서도 처음부터 다시 시작)
     const loadHistory = async () => {
         if (!roomId) return;
         try {
-            const response = await fetch(
-                `http://localhost:8080/api/chat/historyByRoom?roomId=${roomId}`,
-                {credentials: "include"}
-            );
-            if (response.ok) {
-                const data: ChatMessage[] = await response.json();
-                setMessages(data);
-            } else {
-                console.error("채팅 기록 조회 실패", response.status);
+            const data = await fetchHistoryPage(null);
+            if (data) {
+                setMessages(data.messages);
+                setNextBefore(data.nextBefore);
+                setHasMore(data.hasMore);
             }
         } catch (error) {
             console.error("채팅 기록 조회 중 오류 발생:", error);
         }
     };
 
+    // 이전 메시지 더 보기 (현재 목록 앞에 붙인다)
+    const loadOlder = async () => {
+        if (!roomId || nextBefore === null || loadingOlder) return;
+        setLoadingOlder(true);
+        try {
+            const data = await fetchHistoryPage(nextBefore);
+            if (data) {
+                setMessages((prev) => [...data.messages, ...prev]);
+                setNextBefore(data.nextBefore);
+                setHasMore(data.hasMore);
+            }
+        } catch (error) {
+            console.error("이전 채팅 기록 조회 중 오류 발생:", error);
+        } finally {
+            setLoadingOlder(false);
+        }
+    };
+
     // WebSocket 연결 설정
     useEffect(() => {
         if (!username || !receiver || !roomId) return;
         loadHistory();
-        const socket = new SockJS("http://localhost:8080/ws-chat");
+        // WebSocket을 지원하면 네이티브 엔드포인트, 아니면 SockJS 폴백
+        const socket = typeof WebSocket !== "undefined"
+            ? new WebSocket("ws://localhost:8080/ws-chat-native")
+            : new SockJS("http://localhost:8080/ws-chat");
         const client = Stomp.over(socket);
-        client.connect({}, (frame: any) => {
+        // 로그인 때 받은 토큰으로 CONNECT 인증 (token 모드에서는 필수)
+        const token = sessionStorage.getItem("chatToken");
+        const connectHeaders = token ? {username, Authorization: `Bearer ${token}`} : {username};
+        client.connect(connectHeaders, (frame: any) => {
             console.log("Connected: " + frame);
             setIsConnected(true);
             client.subscribe(`/topic/chat/${roomId}`, (message: any) => {
-                const msg: ChatMessage = JSON.parse(message.body);
-                setMessages((prev) => [...prev, msg]);
+                // 여러 건 전송은 메시지 배열 한 프레임으로 온다
+                const body: ChatMessage | ChatMessage[] | { type: "resync" } = JSON.parse(message.body);
+                // 전송이 밀려 서버가 메시지를 버렸으면 최근 기록을 다시 읽는다
+                if (!Array.isArray(body) && "type" in body && body.type === "resync") {
+                    loadHistory();
+                    return;
+                }
+                const received = Array.isArray(body) ? body : [body as ChatMessage];
+                setMessages((prev) => [...prev, ...received]);
             });
         });
         setStompClient(client);
@@ -181,19 +230,19 @@ const ChatRoom: React.FC = () => {
     const uploadFile = async () => {
         if (!file) return;
 
-        const formData = new FormData();
-        formData.append("file", file);
-
         try {
-            const response = await fetch("http://localhost:8080/api/files/upload", {
-                method: "POST",
-                body: formData,
-                credentials: "include",
-            });
+            // 파일을 요청 본문 그대로 보내 서버가 MinIO로 바로 스트리밍한다
+            const response = await fetch(
+                "http://localhost:8080/api/files/stream", {
+                    method: "POST",
+                    body: file,
+                    headers: {"Content-Type": file.type || "application/octet-stream"},
+                    credentials: "include",
+                });
 
             if (response.ok) {
                 const data = await response.json();
-                sendFileMessage(data.fileUrl); // 파일 URL 전송
+                sendFileMessage(data.fileUrl, data.thumbnailUrl); // 파일/미리보기 URL 전송
             } else {
                 console.error("파일 업로드 실패");
             }
@@ -205,7 +254,7 @@ const ChatRoom: React.FC = () => {
         if (fileInputRef.current) fileInputRef.current.value = "";
     };
 
-    const sendFileMessage = (fileUrl: string) => {
+    const sendFileMessage = (fileUrl: string, thumbnailUrl?: string) => {
         if (!stompClient) return;
 
         const chatMessage: ChatMessage = {
@@ -214,6 +263,7 @@ const ChatRoom: React.FC = () => {
             content: "이미지 전송", // 원하는 문구 설정 가능
             timestamp: new Date().toISOString(),
             fileUrl, // 반드시 전달
+            thumbnailUrl,
         };
 
         stompClient.send("/app/chat.send", {}, JSON.stringify(chatMessage));
@@ -229,6 +279,14 @@ const ChatRoom: React.FC = () => {
             <main className="flex-1 flex flex-col max-w-md mx-auto">
                 {/* 메시지 목록 */}
                 <div className="flex-1 overflow-y-auto p-4 space-y-3">
+                    {hasMore && (
+                        <div className="flex justify-center">
+                            <button onClick={loadOlder} disabled={loadingOlder}
+                                    className="text-sm text-gray-600 px-3 py-1 rounded-full bg-white shadow hover:bg-gray-50 transition disabled:opacity-50">
+                                {loadingOlder ? "불러오는 중..." : "이전 메시지 더 보기"}
+                            </button>
+                        </div>
+                    )}
                     {messages.map((msg, idx) => (
                         <div key={idx} className={`flex ${msg.sender === username ? "justify-end" : "justify-start"}`}>
                             <div
@@ -240,8 +298,11 @@ const ChatRoom: React.FC = () => {
                                     <div className="font-bold text-sm mb-1">{msg.sender}</div>
                                 )}
                                 {msg.fileUrl ? (
-                                    <img src={msg.fileUrl} alt="Uploaded file"
-                                         className="max-w-full h-auto rounded-lg"/>
+                                    // 목록에는 미리보기만 받고, 원본은 눌렀을 때만 연다
+                                    <a href={fileSrc(msg.fileUrl)} target="_blank" rel="noreferrer">
+                                        <img src={fileSrc(msg.thumbnailUrl ?? msg.fileUrl)} alt="Uploaded file"
+                                             loading="lazy" className="max-w-full h-auto rounded-lg"/>
+                                    </a>
                                 ) : (
                                     <div>{msg.content}</div>
                                 )}
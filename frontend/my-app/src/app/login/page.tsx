@@ -18,6 +18,9 @@ export default function LoginPage() {
                 body: JSON.stringify({ username, password }),
             });
             if (response.ok) {
+                // STOMP CONNECT 때 Authorization 헤더로 보낼 서명 토큰
+                const data = await response.json();
+                sessionStorage.setItem("chatToken", data.token);
                 router.push("/");
             } else {
                 alert("로그인 실패. 아이디 또는 비밀번호를 확인하세요.");
@@ -102,19 +102,28 @@ const ChatConnection: React.FC = () => {
     // WebSocket 연결 설정 (한 번만 설정)
     useEffect(() => {
         if (!username) return;
-        const socket = new SockJS("http://localhost:8080/ws-chat");
+        // WebSocket을 지원하면 네이티브 엔드포인트, 아니면 SockJS 폴백
+        const socket = typeof WebSocket !== "undefined"
+            ? new WebSocket("ws://localhost:8080/ws-chat-native")
+            : new SockJS("http://localhost:8080/ws-chat");
         const client = Stomp.over(socket);
+        // 로그인 때 받은 토큰으로 CONNECT 인증 (token 모드에서는 필수)
+        const token = sessionStorage.getItem("chatToken");
+        const connectHeaders = token ? {username, Authorization: `Bearer ${token}`} : {username};
         wsClientRef.current = client;
-        client.connect({}, (frame) => {
+        // username 헤더로 서버가 접속 상태(presence)를 추적한다
+        client.connect(connectHeaders, (frame) => {
             console.log("WebSocket Connected: " + frame);
 
             // unread count 구독
             client.subscribe(`/topic/unreadCount/${username}`, (message) => {
-                const update = JSON.parse(message.body);
+                // 서버가 짧은 시간 동안의 변경을 방별 최신 값으로 묶어서 보낸다
+                const {updates} = JSON.parse(message.body) as { updates: { roomId: string; unreadCount: number }[] };
+                const counts = new Map(updates.map((update) => [update.roomId, update.unreadCount]));
                 setChatRooms((prevRooms) =>
                     prevRooms.map((room) =>
-                        room.roomId === update.roomId
-                            ? {...room, unreadCount: update.unreadCount}
+                        counts.has(room.roomId)
+                            ? {...room, unreadCount: counts.get(room.roomId)!}
                             : room
                     )
                 );
@@ -163,7 +172,9 @@ const ChatConnection: React.FC = () => {
 
         chatRooms.forEach((room) => {
             const subscription = wsClientRef.current!.subscribe(`/topic/chat/${room.roomId}`, (message) => {
-                const chatMsg: ChatMessage = JSON.parse(message.body);
+                // 여러 건 전송은 메시지 배열 한 프레임으로 오므로 마지막 메시지를 사용
+                const body: ChatMessage | ChatMessage[] = JSON.parse(message.body);
+                const chatMsg = Array.isArray(body) ? body[body.length - 1] : body;
                 // 해당 채팅방의 마지막 메시지 업데이트
                 setChatRooms((prevRooms) =>
                     prevRooms.map((r) =>
@@ -204,6 +215,7 @@ const ChatConnection: React.FC = () => {
                 credentials: "include",
             });
             if (response.ok) {
+                sessionStorage.removeItem("chatToken");
                 router.push("/login");
             } else {
                 alert("로그아웃 실패");